@@ -0,0 +1,56 @@
+package benchmark;
+
+import component.AbuseFinding;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The abuse checks over one jar's call maps, findings written to a discarding writer. Each operation
+ * checks the whole map once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class AbuseCheckBenchmark {
+    private static final MethodHandle CHECK_COMPILE_TIME = BeadClasses.method(BeadClasses.ABUSE_ANALYZER, "checkCompileTimeAbuse",
+            void.class, BeadClasses.COMBINER, String.class, Collection.class);
+    // checkReflectiveAbuse takes a Soot method, the benchmark calls the per-target check it runs for every full method name
+    private static final MethodHandle CHECK_REFLECTIVE_TARGET = BeadClasses.method(BeadClasses.ABUSE_ANALYZER, "checkReflectiveTarget",
+            AbuseFinding.class, BeadClasses.COMBINER, String.class, String.class, String.class);
+    private static final String SOURCE_CLASS = "benchmark.Source";
+    private static final String SOURCE_METHOD = "<benchmark.Source: void run()>";
+
+    private Object analyzer;
+
+    @Setup(Level.Trial)
+    public void createAnalyzer() {
+        PrintWriter discard = new PrintWriter(OutputStream.nullOutputStream());
+        BeadClasses.setStatic(BeadClasses.ABUSE_ANALYZER, "reflectWriter", discard);
+        BeadClasses.setStatic(BeadClasses.ABUSE_ANALYZER, "compileTimeWriter", discard);
+        analyzer = BeadClasses.newInstance(BeadClasses.ABUSE_ANALYZER);
+    }
+
+    @Benchmark
+    public void checkCompileTimeAbuse(ModelState model) throws Throwable {
+        for (Map.Entry<String, Collection<String>> entry : model.data.compileTimeCalls.entrySet()) {
+            CHECK_COMPILE_TIME.invoke(analyzer, model.combiner, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void checkReflectiveAbuse(ModelState model, Blackhole blackhole) throws Throwable {
+        for (String target : model.data.reflectiveTargets) {
+            blackhole.consume(CHECK_REFLECTIVE_TARGET.invoke(analyzer, model.combiner, SOURCE_METHOD, SOURCE_CLASS, target));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Access to the analyzer classes, which live in the default package and so cannot be referenced from a
+ * benchmark class (JMH refuses benchmarks in the default package). Handles are looked up once per trial.
+ */
+final class BeadClasses {
+    static final Class<?> COMBINER = load("JDKDataCombiner");
+    static final Class<?> ABUSE_ANALYZER = load("AbuseAnalyzer");
+
+    private BeadClasses() {
+    }
+
+    static Object newInstance(Class<?> cls) {
+        try {
+            return cls.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle method(Class<?> cls, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(cls, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void setStatic(Class<?> cls, String name, Object value) {
+        try {
+            Field field = cls.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(null, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import component.MemberDescriptor;
+import component.Utils;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Call maps for the benchmarks, built from the shipped {@code Result/<jar>_Compile_Time_Invoke.txt} and
+ * {@code Result/<jar>_Reflect_Invoke.txt} so they have the size and JDK target mix of a real jar. The
+ * reflective map is padded with the "pkg.Class.method" form of the compile-time targets, since the
+ * reflective sections of the shipped files only hold a handful of entries.
+ */
+final class InvokeData {
+    private static final String COMPILE_TIME_PREFIX = "Found compile-time invoke: ";
+
+    // Source method signature -> distinct JDK targets, as handed to the compile-time check
+    final Map<String, Collection<String>> compileTimeCalls = new LinkedHashMap<>();
+    // Full reflective method names, as handed to the reflective check
+    final List<String> reflectiveTargets = new ArrayList<>();
+    // Decoded (package, class, member) of every compile-time and reflective target
+    final List<String[]> compileTimeLookups = new ArrayList<>();
+    final List<String[]> reflectiveLookups = new ArrayList<>();
+
+    InvokeData(String jarName) throws IOException {
+        String resultDir = Paths.get(System.getProperty("user.dir"), "Result").toString();
+        try (BufferedReader reader = new BufferedReader(new FileReader(Paths.get(resultDir, jarName + "_Compile_Time_Invoke.txt").toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(COMPILE_TIME_PREFIX)) {
+                    int arrow = line.indexOf(" => ");
+                    String source = line.substring(COMPILE_TIME_PREFIX.length(), arrow);
+                    compileTimeCalls.computeIfAbsent(source, k -> new LinkedHashSet<>()).add(line.substring(arrow + 4));
+                }
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(Paths.get(resultDir, jarName + "_Reflect_Invoke.txt").toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("\tMethod ")) {
+                    reflectiveTargets.add(line.substring("\tMethod ".length(), line.lastIndexOf(": ")));
+                }
+            }
+        }
+
+        MemberDescriptor descriptor = new MemberDescriptor();
+        for (Collection<String> targets : compileTimeCalls.values()) {
+            for (String target : targets) {
+                String calleeClass = Utils.getSignatureClass(target);
+                String subSignature = Utils.getSubSignature(target);
+                descriptor.decodeCompileTime(calleeClass, subSignature);
+                compileTimeLookups.add(new String[]{descriptor.getPackageName(), descriptor.getClassName(), descriptor.getMemberName()});
+                reflectiveTargets.add(calleeClass + "." + subSignature.substring(subSignature.indexOf(' ') + 1, subSignature.indexOf('(')));
+            }
+        }
+        for (String target : reflectiveTargets) {
+            if (descriptor.decodeReflective(target)) {
+                reflectiveLookups.add(new String[]{descriptor.getPackageName(), descriptor.getClassName(), descriptor.getMemberName()});
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import component.JDKClass;
+import component.JDKMethod;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK model lookups for every target of one jar's call maps. Each operation looks up all targets once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+    private static final MethodHandle FIND_CLASS = BeadClasses.method(BeadClasses.COMBINER, "findClass", JDKClass.class, String.class, String.class);
+    private static final MethodHandle FIND_COMPILE_TIME = BeadClasses.method(BeadClasses.COMBINER, "findCompileTimeInvokedMethod", String.class, String.class, String.class, String.class);
+    private static final MethodHandle FIND_REFLECTIVE = BeadClasses.method(BeadClasses.COMBINER, "findReflectiveInvokedMethod", String.class, String.class, String.class, String.class);
+    private static final MethodHandle IS_METHOD_MATCH = BeadClasses.method(BeadClasses.COMBINER, "isMethodMatch", boolean.class, String.class, String.class);
+
+    // Stored signature and compile-time member of every overload candidate findCompileTimeInvokedMethod compares
+    private final List<String[]> matchPairs = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void collectOverloads(ModelState model) throws Throwable {
+        for (String[] lookup : model.data.compileTimeLookups) {
+            JDKClass cls = (JDKClass) FIND_CLASS.invoke(model.combiner, lookup[0], lookup[1]);
+            String member = lookup[2];
+            if (cls == null || member.indexOf('(') < 0) {
+                continue;
+            }
+            String name = member.substring(0, member.indexOf('('));
+            int arity = member.substring(member.indexOf('(') + 1, member.indexOf(')')).split(",").length;
+            for (JDKMethod method : cls.getOverloads(name, arity)) {
+                matchPairs.add(new String[]{method.getName(), member});
+            }
+        }
+    }
+
+    @Benchmark
+    public void findCompileTimeInvokedMethod(ModelState model, Blackhole blackhole) throws Throwable {
+        for (String[] lookup : model.data.compileTimeLookups) {
+            blackhole.consume((String) FIND_COMPILE_TIME.invoke(model.combiner, lookup[0], lookup[1], lookup[2]));
+        }
+    }
+
+    @Benchmark
+    public void findReflectiveInvokedMethod(ModelState model, Blackhole blackhole) throws Throwable {
+        for (String[] lookup : model.data.reflectiveLookups) {
+            blackhole.consume((String) FIND_REFLECTIVE.invoke(model.combiner, lookup[0], lookup[1], lookup[2]));
+        }
+    }
+
+    @Benchmark
+    public void isMethodMatch(ModelState model, Blackhole blackhole) throws Throwable {
+        for (String[] pair : matchPairs) {
+            blackhole.consume((boolean) IS_METHOD_MATCH.invoke(model.combiner, pair[0], pair[1]));
+        }
+    }
+}
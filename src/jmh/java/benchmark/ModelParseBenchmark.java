@@ -0,0 +1,47 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the JDK model text files, run from the directory holding ModuleInfo.txt and PkgInfo.txt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelParseBenchmark {
+    private static final MethodHandle PARSE_MODULE_INFO = BeadClasses.method(BeadClasses.COMBINER, "parseModuleInfoFile", void.class, String.class);
+    private static final MethodHandle PARSE_PKG_INFO = BeadClasses.method(BeadClasses.COMBINER, "parsePkgInfoFile", void.class, String.class);
+    private static final String MODULE_INFO_PATH = Paths.get(System.getProperty("user.dir"), "ModuleInfo.txt").toString();
+    private static final String PKG_INFO_PATH = Paths.get(System.getProperty("user.dir"), "PkgInfo.txt").toString();
+
+    // A combiner that has read ModuleInfo.txt only, as parsePkgInfoFile expects
+    @State(Scope.Thread)
+    public static class ModulesParsed {
+        Object combiner;
+
+        @Setup(Level.Invocation)
+        public void parseModules() throws Throwable {
+            combiner = BeadClasses.newInstance(BeadClasses.COMBINER);
+            PARSE_MODULE_INFO.invoke(combiner, MODULE_INFO_PATH);
+        }
+    }
+
+    @Benchmark
+    public Object parseModuleInfoFile() throws Throwable {
+        Object combiner = BeadClasses.newInstance(BeadClasses.COMBINER);
+        PARSE_MODULE_INFO.invoke(combiner, MODULE_INFO_PATH);
+        return combiner;
+    }
+
+    @Benchmark
+    public Object parsePkgInfoFile(ModulesParsed state) throws Throwable {
+        PARSE_PKG_INFO.invoke(state.combiner, PKG_INFO_PATH);
+        return state.combiner;
+    }
+}
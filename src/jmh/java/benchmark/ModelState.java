@@ -0,0 +1,34 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Paths;
+
+/**
+ * The JDK model loaded the way AbuseAnalyzer loads it, plus the call maps of one shipped result set.
+ */
+@State(Scope.Benchmark)
+public class ModelState {
+    private static final MethodHandle LOAD_MODEL = BeadClasses.method(BeadClasses.COMBINER, "loadModel", void.class, String.class, String.class, String.class);
+
+    @Param({"arthas-core-3.6.7", "darklaf-core-2.6.1", "lombok-1.18.6"})
+    public String jar;
+
+    Object combiner;
+    InvokeData data;
+
+    @Setup(Level.Trial)
+    public void load() throws Throwable {
+        String userDir = System.getProperty("user.dir");
+        combiner = BeadClasses.newInstance(BeadClasses.COMBINER);
+        LOAD_MODEL.invoke(combiner, Paths.get(userDir, "ModuleInfo.txt").toString(), Paths.get(userDir, "PkgInfo.txt").toString(),
+                Paths.get(userDir, "JDKModel.bin").toString());
+        try {
+            data = new InvokeData(jar);
+        } catch (IOException e) {
+            throw new IllegalStateException("No shipped results for " + jar, e);
+        }
+    }
+}
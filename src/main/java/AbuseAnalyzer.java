@@ -1,4 +1,20 @@
+import component.AbuseFinding;
+import component.AnalysisMetrics;
+import component.AbuseReason;
+import component.AbuseRuleTable;
+import component.ColumnarFindingWriter;
+import component.FindingAggregator;
+import component.FindingSink;
+import component.IncrementalState;
+import component.JDKMethod;
 import component.JDKPackage;
+import component.JarClassIndex;
+import component.JsonLinesFindingWriter;
+import component.MemberDescriptor;
+import component.PhaseStats;
+import component.ResultCache;
+import component.Utils;
+import component.VersionFindingMatrix;
 import soot.SootMethod;
 
 import java.io.File;
@@ -6,34 +22,261 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 public class AbuseAnalyzer {
     static PrintWriter reflectWriter;
     static PrintWriter compileTimeWriter;
+    static final List<FindingSink> findingSinks = new ArrayList<>();
     private static String outputReflectFileName;
     private static String outputCompileTimeFileName;
+    private static final long DEFAULT_CACHE_SIZE_MB = 1024;
+    private static final String INCREMENTAL_STATE_DIR_NAME = "IncrementalState";
+    private static final String JSON_LINES_SUFFIX = "Findings.jsonl";
+    private static final String COLUMNAR_SUFFIX = "Findings.bin";
+    private static final String VERSION_MATRIX_SUFFIX = "Version_Matrix.txt";
+    private static final int DEFAULT_AGGREGATE_SAMPLES = 5;
+    // Soot keeps its Scene in process-wide singletons, so one process analyzes one jar at a time
+    private static final ReentrantLock ANALYSIS_LOCK = new ReentrantLock();
+    private final MemberDescriptor descriptor = new MemberDescriptor();
+    private int reflectAbuseCount = 0;
+    private int compileTimeAbuseCount = 0;
+    private long reflectAbuseNanos = 0;
+    private long compileTimeAbuseNanos = 0;
+    private FindingAggregator reflectAggregator;
+    private FindingAggregator compileTimeAggregator;
+    private PhaseStats checkStats;
+    private List<JDKDataCombiner> versionCombiners;
+    private VersionFindingMatrix versionMatrix;
+
+    enum Outcome { ANALYZED, RESTORED, FAILED }
 
     public static void main(String[] args) {
+        // Batch runs, the macro benchmark and CI scripts tell a failed analysis by the exit code
+        if (analyze(args, null, null) == Outcome.FAILED) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyzes the jar named in {@code args}. A {@code model} already loaded by the caller is used instead of
+     * reading the JDK model files, and every finding is also written to {@code listener} if it is not null.
+     */
+    static Outcome analyze(String[] args, JDKDataCombiner model, FindingSink listener) {
+        ANALYSIS_LOCK.lock();
+        try {
+            return analyzeLocked(args, model, listener);
+        } finally {
+            // Only a run asked for --metrics counts, also when the same process analyzes more jars afterwards
+            AnalysisMetrics.disable();
+            ANALYSIS_LOCK.unlock();
+        }
+    }
+
+    private static Outcome analyzeLocked(String[] args, JDKDataCombiner model, FindingSink listener) {
+        PhaseStats phaseStats = new PhaseStats();
+        phaseStats.begin("total");
         String userDir = System.getProperty("user.dir");
-        JDKDataCombiner combiner = new JDKDataCombiner();
+        JDKDataCombiner combiner = model != null ? model : new JDKDataCombiner();
         long startTime, endTime;
         double reflectDuration, compileTimeDuration, reflectAbuseDuration, compileTimeAbuseDuration;
         String moduleInfoPath = Paths.get(userDir, "ModuleInfo.txt").toString();
         String pkgInfoPath = Paths.get(userDir, "PkgInfo.txt").toString();
+        String snapshotPath = Paths.get(userDir, JDKDataCombiner.SNAPSHOT_FILE_NAME).toString();
         String classFileDir = Paths.get(userDir, "TestJar", "lombok-1.18.6.jar").toString();    // Modify this line to the path of the input jar file directory
                                                                                                                     //  The input Jar File should be placed in the TestJar folder
+        int parallelism = 1;
+        boolean useCache = true;
+        long cacheSizeMb = DEFAULT_CACHE_SIZE_MB;
+        String incrementalStatePath = null;
+        String callGraphEngine = "direct";
+        boolean bytecodeFrontend = false;
+        List<String> findingsSuffixes = new ArrayList<>();
+        int aggregateSamples = -1;
+        String phaseStatsPath = null;
+        String metricsPath = null;
+        List<String> jdkVersions = null;
+        boolean compactModel = false;
+        for (String arg : args) {
+            if (arg.equals("--incremental")) {
+                incrementalStatePath = "";
+            } else if (arg.startsWith("--incremental=")) {
+                incrementalStatePath = arg.substring("--incremental=".length());
+            } else if (arg.equals("--frontend=bytecode")) {
+                bytecodeFrontend = true;
+            } else if (arg.equals("--frontend=soot")) {
+                bytecodeFrontend = false;
+            } else if (arg.startsWith("--findings=")) {
+                for (String format : arg.substring("--findings=".length()).split(",")) {
+                    if (format.equals("jsonl")) {
+                        findingsSuffixes.add(JSON_LINES_SUFFIX);
+                    } else if (format.equals("columnar")) {
+                        findingsSuffixes.add(COLUMNAR_SUFFIX);
+                    } else {
+                        System.out.println("Unknown findings format: " + format + ", expected jsonl or columnar");
+                        return Outcome.FAILED;
+                    }
+                }
+            } else if (arg.equals("--metrics")) {
+                metricsPath = "";
+            } else if (arg.startsWith("--metrics=")) {
+                metricsPath = arg.substring("--metrics=".length());
+            } else if (arg.equals("--jdk-versions")) {
+                jdkVersions = new ArrayList<>();
+            } else if (arg.startsWith("--jdk-versions=")) {
+                jdkVersions = Arrays.asList(arg.substring("--jdk-versions=".length()).split(","));
+            } else if (arg.equals("--compact-model")) {
+                compactModel = true;
+            } else if (arg.startsWith("--phase-stats=")) {
+                phaseStatsPath = arg.substring("--phase-stats=".length());
+            } else if (arg.equals("--aggregate")) {
+                aggregateSamples = DEFAULT_AGGREGATE_SAMPLES;
+            } else if (arg.startsWith("--aggregate=")) {
+                String samples = arg.substring("--aggregate=".length());
+                aggregateSamples = samples.matches("\\d{1,9}") ? Integer.parseInt(samples) : -1;
+                if (aggregateSamples < 0) {
+                    System.out.println("Invalid number of source methods per abuse: " + samples + ", expected --aggregate=N with N >= 0");
+                    return Outcome.FAILED;
+                }
+            } else if (arg.startsWith("--cg-engine=")) {
+                callGraphEngine = arg.substring("--cg-engine=".length());
+            } else if (arg.equals("--no-cache")) {
+                useCache = false;
+            } else if (arg.startsWith("--cache-size=")) {
+                String cacheSize = arg.substring("--cache-size=".length());
+                cacheSizeMb = cacheSize.matches("\\d{1,12}") ? Long.parseLong(cacheSize) : -1;
+                if (cacheSizeMb < 0) {
+                    System.out.println("Invalid cache size: " + cacheSize + ", expected --cache-size=N with N >= 0 MB");
+                    return Outcome.FAILED;
+                }
+            } else if (arg.equals("--parallel")) {
+                parallelism = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                String threads = arg.substring("--parallel=".length());
+                parallelism = threads.matches("\\d{1,9}") ? Integer.parseInt(threads) : 0;
+                if (parallelism < 1) {
+                    System.out.println("Invalid number of threads: " + threads + ", expected --parallel=N with N >= 1");
+                    return Outcome.FAILED;
+                }
+            } else if (!arg.startsWith("--")) {
+                classFileDir = arg;     // BatchAbuseAnalyzer passes the jar path of each worker here
+            }
+        }
+
+        if (!callGraphEngine.equals("direct") && !callGraphEngine.equals("full")) {
+            System.out.println("Unknown call graph engine: " + callGraphEngine + ", expected direct or full");
+            return Outcome.FAILED;
+        }
+        if (bytecodeFrontend) {
+            // The bytecode front end scans method bodies like the direct engine, it has no whole-program call graph
+            if (!callGraphEngine.equals("direct")) {
+                System.out.println("--cg-engine=" + callGraphEngine + " cannot be combined with --frontend=bytecode, which only finds calls the way the direct engine does");
+                return Outcome.FAILED;
+            }
+            callGraphEngine = "bytecode";
+        }
+
+        if ("".equals(incrementalStatePath)) {
+            // Versions of the same artifact share one state, so an upgraded jar starts from its predecessor
+            incrementalStatePath = Paths.get(userDir, INCREMENTAL_STATE_DIR_NAME, Utils.getArtifactName(classFileDir) + ".state").toString();
+        }
+
+        if ("".equals(metricsPath)) {
+            metricsPath = Paths.get("Result", Utils.getJarName(classFileDir) + "_Metrics.txt").toString();
+        }
+        if (metricsPath != null) {
+            AnalysisMetrics.enable(Utils.getJarName(classFileDir));
+        }
+
+        ResultCache resultCache = useCache ? new ResultCache(Paths.get(userDir, ResultCache.CACHE_DIR_NAME), cacheSizeMb << 20) : null;
+        String cacheKey = null;
+        List<String> cacheSuffixes = new ArrayList<>(findingsSuffixes);
+        boolean analysisCompleted = false;
 
         try {
-            combiner.parseModuleInfoFile(moduleInfoPath);
-            combiner.parsePkgInfoFile(pkgInfoPath);
+            String modelStorePath = null;
+            if (jdkVersions != null) {
+                modelStorePath = JDKDataCombiner.updateModelStore(Paths.get(userDir, JDKDataCombiner.MODEL_STORE_DIR_NAME).toString());
+                cacheSuffixes.add(VERSION_MATRIX_SUFFIX);
+            }
+
+            if (resultCache != null) {
+                startTime = System.nanoTime();
+                String options = callGraphEngine + (aggregateSamples >= 0 ? ":aggregate=" + aggregateSamples : "")
+                        + (jdkVersions != null ? ":versions=" + String.join(",", jdkVersions) : "")
+                        // The structured findings carry the jar name, so a copy of the jar under another name must not share them
+                        + (!findingsSuffixes.isEmpty() ? ":jar=" + Utils.getJarName(classFileDir) : "");
+                cacheKey = modelStorePath != null ? resultCache.computeKey(classFileDir, options, moduleInfoPath, pkgInfoPath, modelStorePath)
+                        : resultCache.computeKey(classFileDir, options, moduleInfoPath, pkgInfoPath);
+                if (resultCache.restore(cacheKey, Paths.get("Result"), Utils.getJarName(classFileDir), cacheSuffixes.toArray(new String[0]))) {
+                    endTime = System.nanoTime();
+                    System.out.println("Jar and JDK model are unchanged, results of " + Utils.getJarName(classFileDir) + " restored from cache in " + (endTime - startTime) / 1e6 + " ms");
+                    AnalysisMetrics.RESULT_CACHE_HITS.increment();
+                    writeMetrics(metricsPath);
+                    return Outcome.RESTORED;
+                }
+                AnalysisMetrics.RESULT_CACHE_MISSES.increment();
+            }
+
+            if (model == null) {
+                phaseStats.begin("model");
+                combiner.loadModel(moduleInfoPath, pkgInfoPath, snapshotPath);
+                phaseStats.end("model");
+            }
+            if (compactModel && !combiner.isCompactModel()) {
+                phaseStats.begin("compactModel");
+                combiner.useCompactModel();
+                phaseStats.end("compactModel");
+            }
+            LinkedHashMap<String, JDKDataCombiner> versionModels = null;
+            if (modelStorePath != null) {
+                phaseStats.begin("versionModels");
+                versionModels = JDKDataCombiner.loadVersions(modelStorePath, jdkVersions);
+                if (compactModel) {
+                    versionModels.values().forEach(JDKDataCombiner::useCompactModel);
+                }
+                phaseStats.end("versionModels");
+                System.out.println("Checking against JDK versions " + versionModels.keySet());
+            }
+
+            JarClassIndex jarIndex = null;
+            IncrementalState previousState = null;
+            IncrementalState nextState = null;
+            Set<String> reanalyzedClasses = null;
+            if (incrementalStatePath != null) {
+                jarIndex = JarClassIndex.scan(classFileDir);
+                previousState = IncrementalState.load(Paths.get(incrementalStatePath));
+                if (!previousState.isEmpty() && !callGraphEngine.equals(previousState.getCallGraphEngine())) {
+                    // Edges recorded by the other engine cover a different set of methods
+                    System.out.println("Incremental state was recorded with the " + previousState.getCallGraphEngine() + " call graph engine, analyzing all classes");
+                    previousState = new IncrementalState(callGraphEngine);
+                }
+                nextState = new IncrementalState(callGraphEngine);
+                for (String className : jarIndex.getClassNames()) {
+                    nextState.getOrCreateClassState(className, jarIndex.getHash(className));
+                }
+                reanalyzedClasses = previousState.findClassesToReanalyze(jarIndex);
+                System.out.println("Incremental analysis: " + reanalyzedClasses.size() + " of " + jarIndex.getClassNames().size()
+                        + " classes are changed or depend on changed classes");
+            }
 
             List<String> classFileDirectories = Arrays.asList(classFileDir);
 
             outputReflectFileName = createReflectFileName(classFileDirectories);
             outputCompileTimeFileName = createCompileTimeFileName(classFileDirectories);
+            findingSinks.clear();
+            if (listener != null) {
+                findingSinks.add(listener);
+            }
             try{
                 reflectWriter = new PrintWriter(new File("Result", outputReflectFileName), "UTF-8");
                 compileTimeWriter = new PrintWriter(new File("Result", outputCompileTimeFileName), "UTF-8");
+                String jarName = Utils.getJarName(classFileDir);
+                for (String suffix : findingsSuffixes) {
+                    File findingsFile = new File("Result", jarName + "_" + suffix);
+                    findingSinks.add(suffix.equals(JSON_LINES_SUFFIX) ? new JsonLinesFindingWriter(findingsFile, jarName) : new ColumnarFindingWriter(findingsFile, jarName));
+                }
             } catch (Exception e){
                 e.printStackTrace();
             }
@@ -43,10 +286,30 @@ public class AbuseAnalyzer {
 
             System.out.println("--------------------");
 
+            // Findings are checked and written while the passes run, each edge as soon as it is found
+            AbuseAnalyzer abuseAnalyzer = new AbuseAnalyzer();
+            if (aggregateSamples >= 0) {
+                abuseAnalyzer.setAggregation(aggregateSamples);
+            }
+            if (phaseStatsPath != null || metricsPath != null) {
+                abuseAnalyzer.setPhaseStats(phaseStats);
+            }
+            if (versionModels != null) {
+                abuseAnalyzer.setVersionModels(versionModels);
+            }
+
             System.out.println("Analyzing reflectively method invoke...");
             startTime = System.nanoTime();
+            phaseStats.begin("reflectivePass");
             ReflectionAnalyzer reflectionAnalyzer = new ReflectionAnalyzer();
+            reflectionAnalyzer.setParallelism(parallelism);
+            reflectionAnalyzer.setPhaseStats(phaseStats);
+            if (nextState != null) {
+                reflectionAnalyzer.setIncremental(reanalyzedClasses, previousState, nextState);
+            }
+            reflectionAnalyzer.setFullMethodListener((method, fullMethods) -> abuseAnalyzer.checkReflectiveAbuse(combiner, method, fullMethods));
             reflectionAnalyzer.initializeAndRun(classFileDirectories);
+            phaseStats.end("reflectivePass");
             endTime = System.nanoTime();
             reflectDuration = (endTime - startTime) / 1e6;
             System.out.println("Analyzing reflectively method invoke done");
@@ -55,39 +318,58 @@ public class AbuseAnalyzer {
 
             System.out.println("Analyzing compile-time method invoke...");
             startTime = System.nanoTime();
-            CompileTimeAnalyzer compileTimeAnalyzer = new CompileTimeAnalyzer(classFileDirectories);
-            Map<SootMethod, Set<SootMethod>> compileTimeCallMap = compileTimeAnalyzer.generateCompleteCallGraph();
+            phaseStats.begin("callGraph");
+            BiConsumer<String, Collection<String>> compileTimeSink = (source, targets) -> abuseAnalyzer.checkCompileTimeAbuse(combiner, source, targets);
+            if (bytecodeFrontend) {
+                BytecodeCompileTimeAnalyzer compileTimeAnalyzer = new BytecodeCompileTimeAnalyzer(classFileDirectories);
+                compileTimeAnalyzer.setParallelism(parallelism);
+                compileTimeAnalyzer.setEdgeSink(compileTimeSink);
+                if (nextState != null) {
+                    compileTimeAnalyzer.generateIncrementalCallGraph(jarIndex, reanalyzedClasses, previousState, nextState);
+                } else {
+                    compileTimeAnalyzer.generateCallGraph();
+                }
+            } else {
+                phaseStats.begin("sootLoad");
+                CompileTimeAnalyzer compileTimeAnalyzer = new CompileTimeAnalyzer(classFileDirectories);
+                phaseStats.end("sootLoad");
+                compileTimeAnalyzer.setEdgeSink(compileTimeSink);
+                if (callGraphEngine.equals("direct") && nextState != null) {
+                    compileTimeAnalyzer.generateDirectCallGraph(jarIndex, reanalyzedClasses, previousState, nextState);
+                } else if (callGraphEngine.equals("direct")) {
+                    compileTimeAnalyzer.generateDirectCallGraph();
+                } else if (nextState != null) {
+                    compileTimeAnalyzer.generateIncrementalCallGraph(jarIndex, reanalyzedClasses, previousState, nextState);
+                } else {
+                    compileTimeAnalyzer.generateCompleteCallGraph();
+                }
+            }
+            phaseStats.end("callGraph");
             endTime = System.nanoTime();
             compileTimeDuration = (endTime - startTime) / 1e6;
             System.out.println("Analyzing compile-time method invoke done");
 
             System.out.println("--------------------");
 
-            System.out.println("Checking abuses...");
-            AbuseAnalyzer abuseAnalyzer = new AbuseAnalyzer();
-
-            System.out.println("--------------------");
             System.out.println("Checking reflective abuses...");
-            startTime = System.nanoTime();
-            boolean reflectiveAbuse = abuseAnalyzer.checkReflectiveAbuse(combiner, reflectionAnalyzer);
-            if(!reflectiveAbuse){
+            if(!abuseAnalyzer.finishReflectiveAbuse()){
                 System.out.println("\nNo reflective abuses found");
             }
-            endTime = System.nanoTime();
-            reflectAbuseDuration = (endTime - startTime) / 1e6;
+            reflectAbuseDuration = abuseAnalyzer.reflectAbuseNanos / 1e6;
             System.out.println("\nChecking reflective abuses done, result has been stored in " + outputReflectFileName);
 
             System.out.println("--------------------");
             System.out.println("Checking compile-time abuses...");
-            startTime = System.nanoTime();
-            boolean compileTimeAbuse = abuseAnalyzer.checkCompileTimeAbuse(combiner, compileTimeCallMap);
-            if(!compileTimeAbuse){
+            if(!abuseAnalyzer.finishCompileTimeAbuse()){
                 System.out.println("\nNo compile-time abuses found");
             }
-            endTime = System.nanoTime();
-            compileTimeAbuseDuration = (endTime - startTime) / 1e6;
+            compileTimeAbuseDuration = abuseAnalyzer.compileTimeAbuseNanos / 1e6;
             System.out.println("\nChecking compile-time abuses done, result has been stored in " + outputCompileTimeFileName);
             System.out.println("--------------------");
+            if (versionModels != null) {
+                abuseAnalyzer.finishVersionMatrix(new File("Result", Utils.getJarName(classFileDir) + "_" + VERSION_MATRIX_SUFFIX));
+                System.out.println("--------------------");
+            }
 
 
             System.out.println("Reflective method invoke analysis duration: " + reflectDuration + " ms");
@@ -95,317 +377,258 @@ public class AbuseAnalyzer {
             System.out.println("Reflective abuse analysis duration: " + reflectAbuseDuration + " ms");
             System.out.println("Compile-time abuse analysis duration: " + compileTimeAbuseDuration + " ms");
             System.out.println("Inconsistency analysis done");
+
+            if (nextState != null) {
+                nextState.save(Paths.get(incrementalStatePath));
+            }
+            analysisCompleted = true;
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            // Also when the analysis throws, so a daemon does not leave the files of a failed run open
+            if (!closeRunOutputs(listener)) {
+                analysisCompleted = false;
+            }
+        }
+
+        if (analysisCompleted) {
+            phaseStats.end("total");
+            if (phaseStatsPath != null) {
+                try {
+                    phaseStats.write(Paths.get(phaseStatsPath));
+                } catch (IOException e) {
+                    System.out.println("Failed to write phase statistics: " + e.getMessage());
+                }
+            }
+            writeMetrics(metricsPath);
+        }
+
+        if (analysisCompleted && cacheKey != null) {
+            try {
+                resultCache.store(cacheKey, Paths.get("Result"), Utils.getJarName(classFileDir), cacheSuffixes.toArray(new String[0]));
+            } catch (IOException e) {
+                System.out.println("Failed to store results in cache: " + e.getMessage());
+            }
         }
+        return analysisCompleted ? Outcome.ANALYZED : Outcome.FAILED;
+    }
+
+    // Closes the reports and finding files of the run, but not the caller's listener; false if one could not be written
+    private static boolean closeRunOutputs(FindingSink listener) {
+        boolean closed = true;
+        if (reflectWriter != null) {
+            reflectWriter.close();
+            reflectWriter = null;
+        }
+        if (compileTimeWriter != null) {
+            compileTimeWriter.close();
+            compileTimeWriter = null;
+        }
+        for (FindingSink sink : findingSinks) {
+            if (sink == listener) {
+                continue;
+            }
+            try {
+                sink.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+                closed = false;
+            }
+        }
+        findingSinks.clear();
+        return closed;
+    }
 
-        reflectWriter.close();
-        compileTimeWriter.close();
+    private static void writeMetrics(String metricsPath) {
+        if (metricsPath == null) {
+            return;
+        }
+        try {
+            AnalysisMetrics.write(Paths.get(metricsPath));
+            System.out.println("Analysis metrics have been stored in " + metricsPath);
+        } catch (IOException e) {
+            System.out.println("Failed to write analysis metrics: " + e.getMessage());
+        }
     }
 
     private static String createReflectFileName(List<String> classPaths) {
         return classPaths.stream()
-                .map(path -> path.substring(path.lastIndexOf('\\') + 1).replace(".jar", ""))
+                .map(Utils::getJarName)
                 .reduce("", (acc, name) -> acc + name + "_") + "Reflect_Abuse.txt";
     }
 
     private static String createCompileTimeFileName(List<String> classPaths) {
         return classPaths.stream()
-                .map(path -> path.substring(path.lastIndexOf('\\') + 1).replace(".jar", ""))
+                .map(Utils::getJarName)
                 .reduce("", (acc, name) -> acc + name + "_") + "Compile_Time_Abuse.txt";
     }
 
-    public boolean checkReflectiveAbuse(JDKDataCombiner combiner, ReflectionAnalyzer transformer) {
-        boolean hasInconsistency = false;
-        int reflectAbuseCount = 0;
-
-        for (SootMethod sourceMethod : transformer.getFullMethodCounts().keySet()) {
-            String sourceMethodClass = sourceMethod.getDeclaringClass().toString();
-            String sourceMethodSignature = sourceMethod.getSignature();
-            Map<String, Integer> methods = transformer.getFullMethodCounts().get(sourceMethod);
-            if(methods != null){
-                for (String fullMethod : methods.keySet()) {
-                    String normalizedMethod = normalizeClassName(fullMethod);
-                    if (!normalizedMethod.matches("[\\w.]+\\.[\\w]+\\.[\\w]+\\.[\\w]+")) {
-                        continue;
-                    }
+    // Reports one block per distinct abuse with up to sampleSize source methods instead of one per finding
+    public void setAggregation(int sampleSize) {
+        reflectAggregator = new FindingAggregator(sampleSize);
+        compileTimeAggregator = new FindingAggregator(sampleSize);
+    }
+
+    // Also records the time the checks take as the reflectiveCheck and compileTimeCheck phases
+    public void setPhaseStats(PhaseStats phaseStats) {
+        this.checkStats = phaseStats;
+    }
 
-                    String packageName = normalizedMethod.substring(0, normalizedMethod.lastIndexOf('.', normalizedMethod.lastIndexOf('.') - 1));
-                    String className = normalizedMethod.substring(normalizedMethod.lastIndexOf('.', normalizedMethod.lastIndexOf('.') - 1) + 1, normalizedMethod.lastIndexOf('.'));
-                    String methodName = normalizedMethod.substring(normalizedMethod.lastIndexOf('.') + 1);
-
-                    if (isJDKClass(normalizedMethod)) {
-                        String retrieveMethod = combiner.findReflectiveInvokedMethod(packageName, className, methodName);
-                        if (retrieveMethod != null) {
-                            JDKPackage pkg = findPackage(combiner, packageName);
-                            String currentModule = combiner.returnCurrentModule(packageName);
-
-                            if (pkg != null) {
-                                Set<String> accessRules = pkg.getAccessRules();
-                                if (accessRules.size() == 1) {
-                                    if (accessRules.contains("exports")) {
-                                        if (!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")) {
-                                            String accessType = pkg.getClass(className).getMethod(retrieveMethod).getAccessType();
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + normalizedMethod + " is " + accessType);
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        }
-                                    } else if (accessRules.contains("opens to")) {
-                                        if (!pkg.getAllowedModules().contains(pkg.getName())) {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + packageName + " only opens to " + pkg.getAllowedModules());
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        } else {
-                                            if (!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")) {
-                                                reflectWriter.println("Detected abuse under module " + currentModule);
-                                                reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                                reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                                reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, and although " + pkg.getName() + " is opened, but " + normalizedMethod + " is not public");
-                                                reflectWriter.println("-------------------------------------------------");
-                                                hasInconsistency = true;
-                                                reflectAbuseCount++;
-                                            }
-                                        }
-                                    } else if (accessRules.contains("exports to")) {
-                                        if (!pkg.getAllowedModules().contains(pkg.getName())) {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + packageName + " only exports to " + pkg.getAllowedModules());
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        } else {
-                                            if (!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")) {
-                                                reflectWriter.println("Detected abuse under module " + currentModule);
-                                                reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                                reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                                reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, and although " + pkg.getName() + " is exported, but " + normalizedMethod + " is not public");
-                                                reflectWriter.println("-------------------------------------------------");
-                                                hasInconsistency = true;
-                                                reflectAbuseCount++;
-                                            }
-                                        }
-                                    }
-                                } else {
-                                    if (accessRules.contains("exports") && accessRules.contains("opens to")) {
-                                        if (!pkg.getAllowedModules().contains(pkg.getName())) {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + packageName + " is exported and only exports to " + pkg.getAllowedModules());
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        }
-                                    }
-                                }
-                            }
-                        } else {
-                            if (isJDKClass(normalizedMethod)) {
-                                JDKPackage pkg = findPackage(combiner, packageName);
-                                String currentModule = combiner.returnCurrentModule(packageName);
-
-                                if (pkg != null) {
-                                    Set<String> accessRules = pkg.getAccessRules();
-                                    if (accessRules.size() == 1) {
-                                        if (accessRules.contains("opens to")) {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + packageName + " only opens to " + pkg.getAllowedModules());
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        } else if (accessRules.contains("exports to")) {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + packageName + " only exports to " + pkg.getAllowedModules());
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        } else {
-                                            reflectWriter.println("Detected abuse under module " + currentModule);
-                                            reflectWriter.println("Source method: " + sourceMethodSignature +" from class: " + sourceMethodClass);
-                                            reflectWriter.println("Involved Method: " + normalizedMethod + " in target class: " + className + " from package " + packageName);
-                                            reflectWriter.println("Abuse Reason: The project tries to reflectively invoke this method, but " + normalizedMethod + " does not exist in current JDK version");
-                                            reflectWriter.println("-------------------------------------------------");
-                                            hasInconsistency = true;
-                                            reflectAbuseCount++;
-                                        }
-                                    }
-                                }
-                            }
-                        }
+    // Also checks every edge against each of these JDK models and collects the findings per version
+    public void setVersionModels(LinkedHashMap<String, JDKDataCombiner> models) {
+        versionCombiners = new ArrayList<>(models.values());
+        versionMatrix = new VersionFindingMatrix(new ArrayList<>(models.keySet()));
+    }
+
+    public void finishVersionMatrix(File file) throws IOException {
+        versionMatrix.writeTo(file);
+        for (int i = 0; i < versionCombiners.size(); i++) {
+            System.out.println("JDK " + versionMatrix.getVersions().get(i) + ": " + versionMatrix.getFindingCount(i) + " abuses");
+        }
+        System.out.println(versionMatrix.getChangingRowCount() + " abuses differ between JDK versions, matrix has been stored in " + file.getName());
+    }
+
+    // Checks the full method names one source method invokes reflectively, as soon as its analysis is done
+    public void checkReflectiveAbuse(JDKDataCombiner combiner, SootMethod sourceMethod, Map<String, Integer> methods) {
+        long startTime = System.nanoTime();
+        long[] startCounters = checkStats != null ? PhaseStats.threadCounters() : null;
+        String sourceMethodClass = sourceMethod.getDeclaringClass().toString();
+        String sourceMethodSignature = sourceMethod.getSignature();
+        for (String fullMethod : methods.keySet()) {
+            AbuseFinding finding = checkReflectiveTarget(combiner, sourceMethodSignature, sourceMethodClass, fullMethod);
+            if (finding != null) {
+                if (reflectAggregator != null) {
+                    reflectAggregator.add(finding);
+                } else {
+                    finding.printTo(reflectWriter);
+                }
+                writeFinding(finding);
+                AnalysisMetrics.countFinding(finding.getReason());
+                reflectAbuseCount++;
+            }
+            if (versionMatrix != null) {
+                for (int i = 0; i < versionCombiners.size(); i++) {
+                    AbuseFinding versionFinding = checkReflectiveTarget(versionCombiners.get(i), sourceMethodSignature, sourceMethodClass, fullMethod);
+                    if (versionFinding != null) {
+                        versionMatrix.add(i, versionFinding);
                     }
                 }
             }
+        }
+        reflectAbuseNanos += System.nanoTime() - startTime;
+        if (checkStats != null) {
+            checkStats.addThreadSpan("reflectiveCheck", startTime, startCounters);
+        }
+    }
 
+    public boolean finishReflectiveAbuse() {
+        if (reflectAggregator != null) {
+            long startTime = System.nanoTime();
+            reflectAggregator.printTo(reflectWriter);
+            reflectAbuseNanos += System.nanoTime() - startTime;
+            reflectWriter.println("Distinct Reflective Abuses: " + reflectAggregator.getGroupCount());
         }
         reflectWriter.println("Total Reflective Abuses: " + reflectAbuseCount);
-        return hasInconsistency;
+        return reflectAbuseCount > 0;
     }
 
-    public boolean checkCompileTimeAbuse(JDKDataCombiner combiner, Map<SootMethod, Set<SootMethod>> compileTimeCallMap) {
-        boolean hasInconsistency = false;
-        int compileTimeAbuseCount = 0;
-
-        for (Map.Entry<SootMethod, Set<SootMethod>> entry : compileTimeCallMap.entrySet()) {
-            Set<SootMethod> callees = entry.getValue();
-
-            for(SootMethod callee: callees){
-                String calleeClass = callee.getDeclaringClass().toString();
-
-                String packageName = calleeClass.substring(0, calleeClass.lastIndexOf('.'));
-                String className = calleeClass.substring(calleeClass.lastIndexOf('.') + 1);
-                String methodName = callee.getSubSignature().substring(callee.getSubSignature().indexOf(" ") + 1);
-
-                String retrieveMethod = combiner.findCompileTimeInvokedMethod(packageName, className, methodName);
-                String currentModule = combiner.returnCurrentModule(packageName);
-                if (retrieveMethod != null) {
-                    JDKPackage pkg = findPackage(combiner, packageName);
-
-                    if(pkg != null){
-                        Set<String> accessRules = pkg.getAccessRules();
-                        if (accessRules.size() == 1) {
-                            if (accessRules.contains("exports")) {
-                                if(!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public") && !pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("default")) {
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time,  but " + calleeClass + "." + methodName + " is " + pkg.getClass(className).getMethod(retrieveMethod).getAccessType());
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }
-                            } else if (accessRules.contains("opens")) {
-                                compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + packageName + " is only opened");
-                                compileTimeWriter.println("-------------------------------------------------");
-                                hasInconsistency = true;
-                                compileTimeAbuseCount++;
-                            } else if (accessRules.contains("opens to")) {
-                                if(!pkg.getAllowedModules().contains(pkg.getName())) {
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + packageName + " only opens to " + pkg.getAllowedModules());
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }else{
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, because " + pkg.getName() + "is not exported, but the project tries to invoke this method during compile time");
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }
-                            } else if (accessRules.contains("exports to")) {
-                                if (!pkg.getAllowedModules().contains(pkg.getName())) {
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time,  but " + pkg.getName() + " only exports to " + pkg.getAllowedModules());
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                } else {
-                                    if (!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")) {
-                                        compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                        compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                        compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but although " + pkg.getName() + " is exported, while " + calleeClass + "." + methodName + " is not public");
-                                        hasInconsistency = true;
-                                        compileTimeAbuseCount++;
-                                    }
-                                }
-                            }
-                        }else{
-                            if(accessRules.contains("exports") && accessRules.contains("opens to")){
-                                if(!pkg.getAllowedModules().contains(pkg.getName())){
-                                    if(!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")){
-                                        compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                        compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                        compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + packageName + " only opens to " + pkg.getAllowedModules() + " and the invoked method is not public");
-                                        compileTimeWriter.println("-------------------------------------------------");
-                                        hasInconsistency = true;
-                                        compileTimeAbuseCount++;
-                                    }
-                                }
-                            }else if(accessRules.contains("exports") && accessRules.contains("opens")){
-                                if(!pkg.getClass(className).getMethod(retrieveMethod).getAccessType().equals("public")){
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + packageName + " is only exported and opened, but the invoked method is not public");
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }
-                            }
-                        }
-                    }else{
-                        compileTimeWriter.println("Detected abuse under module " + currentModule);
-                        compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                        compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + retrieveMethod + " at compile time, but " + packageName + " is not declared opened or exported in the module-info.java file");
-                        compileTimeWriter.println("-------------------------------------------------");
-                        hasInconsistency = true;
-                        compileTimeAbuseCount++;
-                    }
-                }else{
-                    if(isJDKClass(calleeClass)){
-                        JDKPackage pkg = findPackage(combiner, packageName);
-
-                        if(pkg != null){
-                            Set<String> accessRules = pkg.getAccessRules();
-                            if (accessRules.size() == 1) {
-                                if (accessRules.contains("opens")){
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + calleeClass + " is only opened");
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }else if(accessRules.contains("opens to")) {
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + calleeClass + " only opens to " + pkg.getAllowedModules());
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                } else if (accessRules.contains("exports to")) {
-                                    compileTimeWriter.println("Detected abuse under module " + currentModule);
-                                    compileTimeWriter.println("Involved Source Method: " + entry.getKey().getSignature() + "; Involved Target Method: " +  methodName + " in target class: " + calleeClass + " from package " + packageName);
-                                    compileTimeWriter.println("Abuse Reason: The project tries to invoke target method " + methodName + " at compile time, but " + calleeClass + " only exports to " + pkg.getAllowedModules());
-                                    compileTimeWriter.println("-------------------------------------------------");
-                                    hasInconsistency = true;
-                                    compileTimeAbuseCount++;
-                                }
-                            }
-                        }
+    public AbuseFinding checkReflectiveTarget(JDKDataCombiner combiner, String sourceMethodSignature, String sourceMethodClass, String fullMethod) {
+        if (!descriptor.decodeReflective(fullMethod)) {
+            return null;
+        }
+
+        String normalizedMethod = descriptor.getDescriptor();
+        if (!isJDKClass(normalizedMethod)) {
+            return null;
+        }
+
+        String packageName = descriptor.getPackageName();
+        String className = descriptor.getClassName();
+        String methodName = descriptor.getMemberName();
+
+        String retrieveMethod = combiner.findReflectiveInvokedMethod(packageName, className, methodName);
+        JDKPackage pkg = combiner.findPackage(packageName);
+        JDKMethod method = retrieveMethod != null ? pkg.getClass(className).getMethod(retrieveMethod) : null;
+
+        AbuseReason reason = AbuseRuleTable.classifyReflective(AbuseRuleTable.key(pkg, method, true));
+        if (reason == null) {
+            return null;
+        }
+        return new AbuseFinding(reason, combiner.returnCurrentModule(packageName), sourceMethodSignature, sourceMethodClass,
+                normalizedMethod, className, packageName, method != null ? method.getAccessType() : null,
+                pkg.getAllowedModules(), retrieveMethod);
+    }
+
+    // Checks the distinct JDK targets of one source method, as soon as the method has been reported
+    public void checkCompileTimeAbuse(JDKDataCombiner combiner, String sourceMethodSignature, Collection<String> callees) {
+        long startTime = System.nanoTime();
+        long[] startCounters = checkStats != null ? PhaseStats.threadCounters() : null;
+        for (String callee : callees) {
+            AbuseFinding finding = checkCompileTimeTarget(combiner, sourceMethodSignature, Utils.getSignatureClass(callee), Utils.getSubSignature(callee));
+            if (finding != null) {
+                if (compileTimeAggregator != null) {
+                    compileTimeAggregator.add(finding);
+                } else {
+                    finding.printTo(compileTimeWriter);
+                }
+                writeFinding(finding);
+                AnalysisMetrics.countFinding(finding.getReason());
+                compileTimeAbuseCount++;
+            }
+            if (versionMatrix != null) {
+                for (int i = 0; i < versionCombiners.size(); i++) {
+                    AbuseFinding versionFinding = checkCompileTimeTarget(versionCombiners.get(i), sourceMethodSignature, Utils.getSignatureClass(callee), Utils.getSubSignature(callee));
+                    if (versionFinding != null) {
+                        versionMatrix.add(i, versionFinding);
                     }
                 }
-
             }
-
         }
+        compileTimeAbuseNanos += System.nanoTime() - startTime;
+        if (checkStats != null) {
+            checkStats.addThreadSpan("compileTimeCheck", startTime, startCounters);
+        }
+    }
 
+    public boolean finishCompileTimeAbuse() {
+        if (compileTimeAggregator != null) {
+            long startTime = System.nanoTime();
+            compileTimeAggregator.printTo(compileTimeWriter);
+            compileTimeAbuseNanos += System.nanoTime() - startTime;
+            compileTimeWriter.println("Distinct Compile-Time Abuses: " + compileTimeAggregator.getGroupCount());
+        }
         compileTimeWriter.println("Total Compile-Time Abuses: " + compileTimeAbuseCount);
-        return hasInconsistency;
+        return compileTimeAbuseCount > 0;
     }
 
-    private JDKPackage findPackage(JDKDataCombiner combiner, String packageName) {
-        return combiner.modules.values().stream()
-                .map(module -> module.getPackage(packageName))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
+    public AbuseFinding checkCompileTimeTarget(JDKDataCombiner combiner, String sourceMethodSignature, String calleeClass, String calleeSubSignature) {
+        descriptor.decodeCompileTime(calleeClass, calleeSubSignature);
+
+        String packageName = descriptor.getPackageName();
+        String className = descriptor.getClassName();
+        String methodName = descriptor.getMemberName();
+
+        String retrieveMethod = combiner.findCompileTimeInvokedMethod(packageName, className, methodName);
+        JDKPackage pkg = combiner.findPackage(packageName);
+        JDKMethod method = retrieveMethod != null && pkg != null ? pkg.getClass(className).getMethod(retrieveMethod) : null;
+        int key = AbuseRuleTable.key(pkg, method, isJDKClass(calleeClass));
+        if (retrieveMethod != null) {
+            key |= AbuseRuleTable.FOUND;
+        }
+
+        AbuseReason reason = AbuseRuleTable.classifyCompileTime(key);
+        if (reason == null) {
+            return null;
+        }
+        return new AbuseFinding(reason, combiner.returnCurrentModule(packageName), sourceMethodSignature, null,
+                methodName, calleeClass, packageName, method != null ? method.getAccessType() : null,
+                pkg != null ? pkg.getAllowedModules() : null, retrieveMethod);
+    }
+
+    private static void writeFinding(AbuseFinding finding) {
+        for (FindingSink sink : findingSinks) {
+            sink.write(finding);
+        }
     }
 
     private boolean isJDKClass(String className) {
@@ -413,8 +636,4 @@ public class AbuseAnalyzer {
                 || className.startsWith("sun.") || className.startsWith("com.sun.") || className.startsWith("org.ietf.")
                 || className.startsWith("org.w3c.") || className.startsWith("org.xml.") || className.startsWith("netscape.");
     }
-
-    private String normalizeClassName(String binaryName) {
-        return binaryName.replace('/', '.').replaceAll("^L|;$", "").replaceAll(";\\.", ".");
-    }
 }
@@ -0,0 +1,313 @@
+import component.AbuseFinding;
+import component.FindingSink;
+import component.JsonLinesFindingWriter;
+import component.Utils;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Long-running AbuseAnalyzer that parses the JDK model once and then analyzes jar after jar, either sent by
+ * clients over a local socket or dropped into a watched directory.
+ * <p>
+ * A client sends one line {@code ANALYZE <jar_path> [--analyzer-option ...]} and receives the findings as JSON
+ * lines (see {@link JsonLinesFindingWriter}) while the analysis runs, followed by
+ * {@code DONE <jar> <analyzed|restored> <findings> <ms>} or {@code ERROR <message>}. Requests beyond the queue
+ * are answered with {@code BUSY}.
+ */
+public class AnalysisDaemon {
+    private static final int DEFAULT_PORT = 7391;
+    private static final int DEFAULT_QUEUE_SIZE = 16;
+    private static final int REQUEST_READ_TIMEOUT_MS = 10000;
+    // Findings of one request waiting to be sent to its client
+    private static final int MAX_PENDING_FINDINGS = 10000;
+    // A jar dropped into the watched directory is analyzed once its size has not changed for this long
+    private static final long WATCH_SETTLE_MS = 500;
+
+    private static final List<String> analyzerOptions = new ArrayList<>();
+    private static final Set<Path> pendingWatchedJars = ConcurrentHashMap.newKeySet();
+    private static JDKDataCombiner combiner;
+    private static ThreadPoolExecutor executor;
+    // Runs the analyses of socket requests; as many at a time as the executor serves requests
+    private static final ExecutorService analysisThreads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bead-analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        String watchDir = null;
+        int concurrency = 1;
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--watch=")) {
+                watchDir = arg.substring("--watch=".length());
+            } else if (arg.startsWith("--concurrency=")) {
+                concurrency = Integer.parseInt(arg.substring("--concurrency=".length()));
+            } else if (arg.startsWith("--queue-size=")) {
+                queueSize = Integer.parseInt(arg.substring("--queue-size=".length()));
+            } else if (arg.startsWith("--")) {
+                analyzerOptions.add(arg);   // Applies to every request, options sent with a request come after them
+            }
+        }
+
+        String userDir = System.getProperty("user.dir");
+        try {
+            long startTime = System.nanoTime();
+            combiner = new JDKDataCombiner();
+            combiner.loadModel(Paths.get(userDir, "ModuleInfo.txt").toString(), Paths.get(userDir, "PkgInfo.txt").toString(),
+                    Paths.get(userDir, JDKDataCombiner.SNAPSHOT_FILE_NAME).toString());
+            System.out.println("Loaded JDK model with " + combiner.modules.size() + " modules in " + (System.nanoTime() - startTime) / 1e6 + " ms");
+            Files.createDirectories(Paths.get("Result"));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.AbortPolicy());
+
+        if (watchDir != null) {
+            Path dir = Paths.get(watchDir);
+            Thread watcher = new Thread(() -> watch(dir), "bead-watch");
+            watcher.setDaemon(port > 0);
+            watcher.start();
+        }
+        if (port > 0) {
+            serve(port);
+        }
+    }
+
+    private static void serve(int port) {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening for ANALYZE requests on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                try {
+                    executor.execute(() -> handle(socket));
+                } catch (RejectedExecutionException e) {
+                    try (Socket rejected = socket) {
+                        rejected.getOutputStream().write("BUSY\n".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void handle(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            connection.setSoTimeout(REQUEST_READ_TIMEOUT_MS);
+            String request = in.readLine();
+            String[] parts = request != null ? request.trim().split("\\s+") : new String[0];
+            if (parts.length < 2 || !parts[0].equals("ANALYZE")) {
+                out.write("ERROR expected ANALYZE <jar_path> [--option ...]\n");
+                return;
+            }
+            if (!Files.isRegularFile(Paths.get(parts[1]))) {
+                out.write("ERROR no such jar: " + parts[1] + "\n");
+                return;
+            }
+
+            StreamingSink sink = new StreamingSink(connection, Utils.getJarName(parts[1]));
+            long startTime = System.nanoTime();
+            // The analysis runs on its own thread and only queues findings, so a client that stops reading
+            // cannot block it while it holds the analysis lock
+            Future<AbuseAnalyzer.Outcome> analysis = analysisThreads.submit(
+                    () -> AbuseAnalyzer.analyze(buildArgs(parts[1], Arrays.asList(parts).subList(2, parts.length)), combiner, sink));
+            AbuseAnalyzer.Outcome outcome;
+            try {
+                sink.drainTo(out, analysis);
+                outcome = analysis.get();
+                if (outcome == AbuseAnalyzer.Outcome.RESTORED) {
+                    sink.replay(out, Paths.get("Result", Utils.getJarName(parts[1]) + "_Findings.jsonl"));
+                }
+            } catch (ExecutionException | IOException | RuntimeException e) {
+                // A bad option or a failure inside Soot still ends the reply with an ERROR line
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                cause.printStackTrace();
+                out.write("ERROR analysis of " + parts[1] + " failed: " + String.valueOf(cause).replace('\n', ' ') + "\n");
+                return;
+            }
+            if (outcome == AbuseAnalyzer.Outcome.FAILED) {
+                out.write("ERROR analysis of " + parts[1] + " failed\n");
+            } else {
+                out.write("DONE " + Utils.getJarName(parts[1]) + " " + outcome.name().toLowerCase() + " " + sink.count
+                        + " " + (System.nanoTime() - startTime) / 1e6 + "\n");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Failed to serve request: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void watch(Path dir) {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("Watching " + dir.toAbsolutePath() + " for new jars");
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        continue;
+                    }
+                    Path jar = dir.resolve((Path) event.context());
+                    // Copying a jar raises several events, it is queued once until its analysis starts
+                    if (jar.toString().endsWith(".jar") && pendingWatchedJars.add(jar)) {
+                        try {
+                            executor.execute(() -> analyzeWatched(jar));
+                        } catch (RejectedExecutionException e) {
+                            pendingWatchedJars.remove(jar);
+                            System.out.println("Queue is full, skipped " + jar);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void analyzeWatched(Path jar) {
+        try {
+            long size = -1;
+            while (Files.exists(jar) && Files.size(jar) != size) {
+                size = Files.size(jar);
+                Thread.sleep(WATCH_SETTLE_MS);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to read " + jar + ": " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            pendingWatchedJars.remove(jar);
+        }
+        if (!Files.exists(jar)) {
+            return;
+        }
+
+        try {
+            AbuseAnalyzer.Outcome outcome = AbuseAnalyzer.analyze(buildArgs(jar.toString(), Collections.emptyList()), combiner, null);
+            System.out.println("Watched jar " + jar.getFileName() + ": " + outcome.name().toLowerCase());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            System.out.println("Watched jar " + jar.getFileName() + ": failed");
+        }
+    }
+
+    // Findings reach the client through the JSON lines file as well, so a cached result can be replayed
+    private static String[] buildArgs(String jarPath, List<String> requestOptions) {
+        List<String> args = new ArrayList<>();
+        args.add(jarPath);
+        args.addAll(analyzerOptions);
+        args.addAll(requestOptions);
+        String findings = null;
+        for (String arg : args) {
+            if (arg.startsWith("--findings=")) {
+                findings = arg.substring("--findings=".length());
+            }
+        }
+        if (findings == null) {
+            args.add("--findings=jsonl");
+        } else if (!Arrays.asList(findings.split(",")).contains("jsonl")) {
+            args.add("--findings=" + findings + ",jsonl");
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /*
+     * Queues every finding for the connection as soon as it is found; the thread serving the connection sends
+     * them. A client that does not keep up with the queue is dropped: its connection is closed, which also
+     * ends a send blocked on it, and further findings are only counted.
+     */
+    private static class StreamingSink implements FindingSink {
+        private final Socket connection;
+        private final BlockingQueue<String> pending = new ArrayBlockingQueue<>(MAX_PENDING_FINDINGS);
+        private final StringWriter formatted = new StringWriter();
+        private final JsonLinesFindingWriter findings;
+        private volatile boolean disconnected = false;
+        private volatile int count = 0;
+
+        StreamingSink(Socket connection, String jarName) {
+            this.connection = connection;
+            this.findings = new JsonLinesFindingWriter(formatted, jarName);
+        }
+
+        @Override
+        public synchronized void write(AbuseFinding finding) {
+            count++;
+            if (disconnected) {
+                return;
+            }
+            findings.write(finding);
+            String line = formatted.toString();
+            formatted.getBuffer().setLength(0);
+            if (!pending.offer(line)) {
+                System.out.println("Client of " + connection.getRemoteSocketAddress() + " does not read its findings, dropping it");
+                disconnect();
+            }
+        }
+
+        // Sends queued findings until the analysis is done and all of them are sent
+        void drainTo(Writer out, Future<?> analysis) throws InterruptedException {
+            while (!analysis.isDone() || !pending.isEmpty()) {
+                String line = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (line == null || disconnected) {
+                    continue;
+                }
+                try {
+                    out.write(line);
+                    if (pending.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    disconnect();
+                }
+            }
+        }
+
+        void replay(Writer out, Path jsonLinesFile) throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(jsonLinesFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    out.write(line);
+                    out.write('\n');
+                    count++;
+                }
+            }
+            out.flush();
+        }
+
+        private void disconnect() {
+            disconnected = true;
+            pending.clear();
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
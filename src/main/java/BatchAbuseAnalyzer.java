@@ -0,0 +1,196 @@
+import component.Utils;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchAbuseAnalyzer {
+    private static final String SUMMARY_FILE_NAME = "Batch_Summary.txt";
+    private static final List<String> workerOptions = new ArrayList<>();
+
+    public static void main(String[] args) {
+        // "--" options are not interpreted here but handed on to every AbuseAnalyzer worker
+        List<String> positionalArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                workerOptions.add(arg);
+            } else {
+                positionalArgs.add(arg);
+            }
+        }
+        if (positionalArgs.isEmpty()) {
+            System.out.println("Usage: java BatchAbuseAnalyzer <jar_directory|jar_list_file> [worker_count] [--analyzer-option ...]");
+            return;
+        }
+
+        String userDir = System.getProperty("user.dir");
+        String moduleInfoPath = Paths.get(userDir, "ModuleInfo.txt").toString();
+        String pkgInfoPath = Paths.get(userDir, "PkgInfo.txt").toString();
+        String snapshotPath = Paths.get(userDir, JDKDataCombiner.SNAPSHOT_FILE_NAME).toString();
+        int workerCount = positionalArgs.size() > 1 ? Integer.parseInt(positionalArgs.get(1)) : Runtime.getRuntime().availableProcessors();
+
+        try {
+            List<String> jarPaths = collectJarPaths(positionalArgs.get(0));
+            if (jarPaths.isEmpty()) {
+                System.out.println("No jar files found in " + positionalArgs.get(0));
+                return;
+            }
+
+            // Parse the JDK model once up front; the workers map the compiled snapshot instead of re-parsing it
+            JDKDataCombiner combiner = new JDKDataCombiner();
+            combiner.loadModel(moduleInfoPath, pkgInfoPath, snapshotPath);
+            System.out.println("Loaded JDK model with " + combiner.modules.size() + " modules");
+            // Likewise the version store, so that the workers find it up to date instead of all rebuilding it at once
+            if (workerOptions.stream().anyMatch(option -> option.equals("--jdk-versions") || option.startsWith("--jdk-versions="))) {
+                JDKDataCombiner.updateModelStore(Paths.get(userDir, JDKDataCombiner.MODEL_STORE_DIR_NAME).toString());
+            }
+
+            Files.createDirectories(Paths.get("Result"));
+            System.out.println("Analyzing " + jarPaths.size() + " jars with " + workerCount + " workers");
+
+            long startTime = System.nanoTime();
+            List<BatchResult> results = runWorkers(jarPaths, workerCount);
+            double batchDuration = (System.nanoTime() - startTime) / 1e6;
+
+            writeSummary(results, batchDuration);
+            System.out.println("Batch analysis done, summary has been stored in " + SUMMARY_FILE_NAME);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static List<String> collectJarPaths(String input) throws IOException {
+        Path inputPath = Paths.get(input);
+        if (Files.isDirectory(inputPath)) {
+            try (Stream<Path> files = Files.list(inputPath)) {
+                return files.filter(path -> path.toString().endsWith(".jar"))
+                        .map(path -> path.toAbsolutePath().toString())
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        try (Stream<String> lines = Files.lines(inputPath)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<BatchResult> runWorkers(List<String> jarPaths, int workerCount) throws InterruptedException {
+        // Soot keeps its G/Scene state in process-wide singletons, so every jar is analyzed in its own JVM
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount);
+        List<Future<BatchResult>> futures = new ArrayList<>();
+        for (String jarPath : jarPaths) {
+            futures.add(pool.submit(() -> analyzeInWorker(jarPath)));
+        }
+        pool.shutdown();
+
+        List<BatchResult> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(new BatchResult(jarPaths.get(i), -1, 0));
+                e.getCause().printStackTrace();
+            }
+        }
+        return results;
+    }
+
+    private static BatchResult analyzeInWorker(String jarPath) throws IOException, InterruptedException {
+        String jarName = Utils.getJarName(jarPath);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String jvmArg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (jvmArg.startsWith("-X") || jvmArg.startsWith("-D")) {
+                command.add(jvmArg);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("AbuseAnalyzer");
+        command.add(jarPath);
+        command.addAll(workerOptions);
+
+        // Drop reports of earlier runs so a crashed worker cannot be mistaken for a finished one
+        Files.deleteIfExists(Paths.get("Result", jarName + "_Reflect_Abuse.txt"));
+        Files.deleteIfExists(Paths.get("Result", jarName + "_Compile_Time_Abuse.txt"));
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(new File("Result", jarName + "_Batch.log"));
+
+        System.out.println("Start analysis of " + jarName);
+        long startTime = System.nanoTime();
+        Process process = pb.start();
+        int exitCode = process.waitFor();
+        double duration = (System.nanoTime() - startTime) / 1e6;
+        System.out.println("Finished analysis of " + jarName + " (exit code " + exitCode + ")");
+
+        return new BatchResult(jarPath, exitCode, duration);
+    }
+
+    private static void writeSummary(List<BatchResult> results, double batchDuration) throws IOException {
+        int failedJars = 0;
+        int totalReflectAbuses = 0;
+        int totalCompileTimeAbuses = 0;
+
+        try (PrintWriter writer = new PrintWriter(new File("Result", SUMMARY_FILE_NAME), "UTF-8")) {
+            writer.println("Batch Abuse Analysis Summary:");
+            for (BatchResult result : results) {
+                String jarName = Utils.getJarName(result.jarPath);
+                int reflectAbuses = readTotal(jarName + "_Reflect_Abuse.txt", "Total Reflective Abuses: ");
+                int compileTimeAbuses = readTotal(jarName + "_Compile_Time_Abuse.txt", "Total Compile-Time Abuses: ");
+
+                if (result.exitCode != 0 || reflectAbuses < 0 || compileTimeAbuses < 0) {
+                    failedJars++;
+                    writer.println("Jar " + jarName + ": FAILED (exit code " + result.exitCode + "), see " + jarName + "_Batch.log");
+                    continue;
+                }
+
+                totalReflectAbuses += reflectAbuses;
+                totalCompileTimeAbuses += compileTimeAbuses;
+                writer.println("Jar " + jarName + ": Reflective Abuses: " + reflectAbuses + ", Compile-Time Abuses: " + compileTimeAbuses
+                        + ", Duration: " + result.duration + " ms");
+            }
+
+            writer.println("-------------------------------------------------");
+            writer.println("Total Jars: " + results.size());
+            writer.println("Failed Jars: " + failedJars);
+            writer.println("Total Reflective Abuses: " + totalReflectAbuses);
+            writer.println("Total Compile-Time Abuses: " + totalCompileTimeAbuses);
+            writer.println("Batch Duration: " + batchDuration + " ms");
+        }
+    }
+
+    private static int readTotal(String resultFileName, String totalPrefix) throws IOException {
+        Path resultFile = Paths.get("Result", resultFileName);
+        if (!Files.exists(resultFile)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(resultFile)) {
+            return lines.filter(line -> line.startsWith(totalPrefix))
+                    .map(line -> Integer.parseInt(line.substring(totalPrefix.length()).trim()))
+                    .reduce(-1, (acc, total) -> total);
+        }
+    }
+
+    private static class BatchResult {
+        private final String jarPath;
+        private final int exitCode;
+        private final double duration;
+
+        BatchResult(String jarPath, int exitCode, double duration) {
+            this.jarPath = jarPath;
+            this.exitCode = exitCode;
+            this.duration = duration;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import component.AnalysisMetrics;
+import component.BytecodeCallSiteScanner;
+import component.CallEdgeReport;
+import component.ClassFileInfo;
+import component.ClassFileLookup;
+import component.IncrementalState;
+import component.JarClassIndex;
+import component.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compile-time pass that reads the class files of the jar directly instead of loading it into Soot. Class
+ * files are streamed from the jar and their edges reported class by class, so memory does not grow with
+ * the jar, and can be scanned in parallel. Produces the same Compile_Time_Invoke file as CompileTimeAnalyzer.
+ */
+public class BytecodeCompileTimeAnalyzer {
+    // Classes scanned ahead of the one being reported, per thread
+    private static final int SCAN_AHEAD_PER_THREAD = 4;
+
+    private final List<String> paths = new ArrayList<>();
+    private String outputFileName;
+    private int parallelism = 1;
+    private BiConsumer<String, Collection<String>> edgeSink;
+
+    public BytecodeCompileTimeAnalyzer(List<String> classPaths) {
+        paths.addAll(classPaths);
+        outputFileName = classPaths.stream()
+                .map(Utils::getJarName)
+                .reduce("", (acc, name) -> acc + name + "_") + "Compile_Time_Invoke.txt";
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    // Receives every source method with its distinct JDK targets as soon as the method has been reported
+    public void setEdgeSink(BiConsumer<String, Collection<String>> edgeSink) {
+        this.edgeSink = edgeSink;
+    }
+
+    public void generateCallGraph() throws IOException {
+        try (CallEdgeReport report = new CallEdgeReport(new File("Result", outputFileName), edgeSink)) {
+            for (String path : paths) {
+                scanJar(path, null, (className, edges) -> report.addEdges(edges));
+            }
+        }
+        System.out.println("Compile-time invoke result has stored in " + outputFileName);
+    }
+
+    /**
+     * Scans the classes in {@code reanalyzedClasses} only, all other classes keep the edges recorded in
+     * {@code previousState}. The merged result is recorded into {@code nextState}.
+     */
+    public void generateIncrementalCallGraph(JarClassIndex jar, Set<String> reanalyzedClasses,
+                                             IncrementalState previousState, IncrementalState nextState) throws IOException {
+        for (String path : paths) {
+            scanJar(path, reanalyzedClasses, (className, edges) -> nextState.getClassState(className).getEdges().putAll(edges));
+        }
+
+        try (CallEdgeReport report = new CallEdgeReport(new File("Result", outputFileName), edgeSink)) {
+            for (String className : jar.getClassNames()) {
+                IncrementalState.ClassState cls = nextState.getClassState(className);
+                IncrementalState.ClassState previous = previousState.getClassState(className);
+                if (!reanalyzedClasses.contains(className) && previous != null) {
+                    cls.getEdges().putAll(previous.getEdges());
+                }
+                report.addEdges(cls.getEdges());
+            }
+        }
+        System.out.println("Re-analyzed " + reanalyzedClasses.size() + " of " + jar.getClassNames().size() + " classes, compile-time invoke result has stored in " + outputFileName);
+    }
+
+    // Hands the edges of each class to consumer in jar order, restricted to selectedClasses unless it is null
+    private void scanJar(String jarPath, Set<String> selectedClasses, BiConsumer<String, Map<String, List<String>>> consumer) throws IOException {
+        try (ZipFile jar = new ZipFile(jarPath)) {
+            BytecodeCallSiteScanner scanner = new BytecodeCallSiteScanner(new ClassFileLookup(jar));
+            List<ZipEntry> entries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> jarEntries = jar.entries();
+            while (jarEntries.hasMoreElements()) {
+                ZipEntry entry = jarEntries.nextElement();
+                String entryName = entry.getName();
+                if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/") || entryName.endsWith("module-info.class")) {
+                    continue;
+                }
+                if (selectedClasses == null || selectedClasses.contains(entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.'))) {
+                    entries.add(entry);
+                }
+            }
+
+            if (parallelism <= 1) {
+                for (ZipEntry entry : entries) {
+                    consume(scanEntry(jar, entry, scanner), consumer);
+                }
+                return;
+            }
+
+            // Classes are scanned a bounded distance ahead and consumed in entry order, which keeps the
+            // result identical to the sequential scan and memory independent of the jar size
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                Deque<ForkJoinTask<Map.Entry<String, Map<String, List<String>>>>> pending = new ArrayDeque<>();
+                for (ZipEntry entry : entries) {
+                    if (pending.size() == parallelism * SCAN_AHEAD_PER_THREAD) {
+                        consume(pending.poll().join(), consumer);
+                    }
+                    pending.add(pool.submit(() -> scanEntry(jar, entry, scanner)));
+                }
+                while (!pending.isEmpty()) {
+                    consume(pending.poll().join(), consumer);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private void consume(Map.Entry<String, Map<String, List<String>>> scanned, BiConsumer<String, Map<String, List<String>>> consumer) {
+        if (scanned != null) {
+            consumer.accept(scanned.getKey(), scanned.getValue());
+        }
+    }
+
+    // Class name and edges of one class file, null if it cannot be read
+    private Map.Entry<String, Map<String, List<String>>> scanEntry(ZipFile jar, ZipEntry entry, BytecodeCallSiteScanner scanner) {
+        try (InputStream in = jar.getInputStream(entry)) {
+            ClassFileInfo cls = new ClassFileInfo(in.readAllBytes());
+            AnalysisMetrics.CLASSES_SCANNED.increment();
+            return new AbstractMap.SimpleImmutableEntry<>(cls.getName(), scanner.scan(cls));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Failed to scan " + entry.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,18 +1,34 @@
+import component.AnalysisMetrics;
+import component.CallEdgeReport;
+import component.IncrementalState;
+import component.JarClassIndex;
+import component.Utils;
+
 import soot.*;
+import soot.jimple.AssignStmt;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NewMultiArrayExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.Stmt;
 import soot.jimple.toolkits.callgraph.CallGraph;
 import soot.jimple.toolkits.callgraph.Edge;
 import soot.options.Options;
+import soot.util.queue.QueueReader;
 
 import java.io.File;
-import java.io.PrintWriter;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 public class CompileTimeAnalyzer {
     private static List<String> paths = new ArrayList<>();
     private String outputFileName;
-    private int compileTimeInvokeCount = 0;
+    private BiConsumer<String, Collection<String>> edgeSink;
 
     public CompileTimeAnalyzer(List<String> classPaths){
+        paths.clear();
         paths.addAll(classPaths);
         outputFileName = createFileName(classPaths);
         for(String path: paths){
@@ -35,16 +51,22 @@ public class CompileTimeAnalyzer {
         Options.v().set_src_prec(Options.src_prec_class);
 
         Scene.v().loadNecessaryClasses();
+        AnalysisMetrics.CLASSES_LOADED.add(Scene.v().getClasses().size());
         System.out.println("Loaded necessary classes for " + jarPath);
     }
 
     private String createFileName(List<String> classPaths) {
         return classPaths.stream()
-                .map(path -> path.substring(path.lastIndexOf('\\') + 1).replace(".jar", ""))
+                .map(Utils::getJarName)
                 .reduce("", (acc, name) -> acc + name + "_") + "Compile_Time_Invoke.txt";
     }
 
-    public Map<SootMethod, Set<SootMethod>> generateCompleteCallGraph() {
+    // Receives every source method with its distinct JDK targets as soon as the method has been reported
+    public void setEdgeSink(BiConsumer<String, Collection<String>> edgeSink) {
+        this.edgeSink = edgeSink;
+    }
+
+    public void generateCompleteCallGraph() {
         List<SootMethod> entryPoints = new ArrayList<>();
         for (SootClass sc : Scene.v().getApplicationClasses()) {
             for (SootMethod sm : sc.getMethods()) {
@@ -56,36 +78,223 @@ public class CompileTimeAnalyzer {
         Scene.v().setEntryPoints(entryPoints);
         PackManager.v().runPacks();
 
-        Map<SootMethod, Set<SootMethod>> callMap = new HashMap<>();
+        // Edges come in call graph order, so they are grouped by source method before they are passed on
+        Map<String, Set<String>> callMap = new LinkedHashMap<>();
         CallGraph cg = Scene.v().getCallGraph();
-        try (PrintWriter writer = new PrintWriter(new File("Result", outputFileName), "UTF-8")) {
-            writer.println("All Compile-time Calls invokes JDK:");
+        try (CallEdgeReport report = openReport()) {
             for (Edge e : cg) {
+                if (isCompileTimeEdge(e)) {
+                    String source = e.getSrc().method().getSignature();
+                    String target = e.tgt().getSignature();
+                    report.printEdge(source, target);
+                    callMap.computeIfAbsent(source, k -> new LinkedHashSet<>()).add(target);
+                }
+
+            }
+            report.passOn(callMap);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Compile-time invoke result has stored in " + outputFileName);
+    }
 
-                if (e.getSrc() == null || e.getSrc().method() == null) {
-                    continue;
+    /**
+     * Call graph restricted to the classes in {@code reanalyzedClasses}: their public methods and the
+     * methods that were reachable in the previous run are the entry points. Edges of methods reached now
+     * replace the recorded ones, all other methods keep the edges recorded in {@code previousState}, and
+     * the merged result is recorded into {@code nextState}.
+     */
+    public void generateIncrementalCallGraph(JarClassIndex jar, Set<String> reanalyzedClasses,
+                                             IncrementalState previousState, IncrementalState nextState) {
+        List<SootMethod> entryPoints = new ArrayList<>();
+        for (SootClass sc : Scene.v().getApplicationClasses()) {
+            if (!reanalyzedClasses.contains(sc.getName())) {
+                continue;
+            }
+            IncrementalState.ClassState previous = previousState.getClassState(sc.getName());
+            for (SootMethod sm : sc.getMethods()) {
+                if (sm.isConcrete() && (sm.isPublic() || (previous != null && previous.getReachableMethods().contains(sm.getSignature())))) {
+                    entryPoints.add(sm);
                 }
+            }
+        }
+        Scene.v().setEntryPoints(entryPoints);
+        PackManager.v().runPacks();
+
+        Map<String, Set<String>> reachableNow = new HashMap<>();
+        QueueReader<MethodOrMethodContext> reachable = Scene.v().getReachableMethods().listener();
+        while (reachable.hasNext()) {
+            SootMethod method = reachable.next().method();
+            String owner = jar.findOwner(method.getDeclaringClass().getName());
+            if (owner != null) {
+                reachableNow.computeIfAbsent(owner, k -> new LinkedHashSet<>()).add(method.getSignature());
+            }
+        }
+        Map<String, Map<String, List<String>>> edgesNow = new HashMap<>();
+        for (Edge e : Scene.v().getCallGraph()) {
+            if (isCompileTimeEdge(e)) {
+                String owner = jar.findOwner(e.getSrc().method().getDeclaringClass().getName());
+                if (owner != null) {
+                    edgesNow.computeIfAbsent(owner, k -> new LinkedHashMap<>())
+                            .computeIfAbsent(e.getSrc().method().getSignature(), k -> new ArrayList<>())
+                            .add(e.tgt().getSignature());
+                }
+            }
+        }
+
+        for (String className : jar.getClassNames()) {
+            IncrementalState.ClassState cls = nextState.getClassState(className);
+            IncrementalState.ClassState previous = previousState.getClassState(className);
+            Set<String> reachableMethods = reachableNow.getOrDefault(className, Collections.emptySet());
+            Map<String, List<String>> edges = edgesNow.getOrDefault(className, Collections.emptyMap());
+
+            if (!reanalyzedClasses.contains(className) && previous != null) {
+                cls.getReachableMethods().addAll(previous.getReachableMethods());
+                cls.getEdges().putAll(previous.getEdges());
+                // A method reached in this run has all of its edges in the new call graph
+                for (String method : reachableMethods) {
+                    cls.getEdges().remove(method);
+                }
+            }
+            cls.getReachableMethods().addAll(reachableMethods);
+            cls.getEdges().putAll(edges);
+        }
+
+        reportInJarOrder(jar, nextState);
+        System.out.println("Re-analyzed " + reanalyzedClasses.size() + " of " + jar.getClassNames().size() + " classes, compile-time invoke result has stored in " + outputFileName);
+    }
+
+    /**
+     * Edges into the JDK found by scanning the body of every concrete method in the jar, without building
+     * a call graph: static invokes of JDK methods plus the JDK static initializers a statement triggers,
+     * the same edges CHA records for a method. Unlike CHA, methods not reachable from a public method of
+     * the jar are scanned as well.
+     */
+    public void generateDirectCallGraph() {
+        try (CallEdgeReport report = openReport()) {
+            for (SootClass sc : new ArrayList<>(Scene.v().getApplicationClasses())) {
+                Map<String, List<String>> edges = new LinkedHashMap<>();
+                scanCallSites(sc, edges);
+                report.addEdges(edges);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Compile-time invoke result has stored in " + outputFileName);
+    }
+
+    /**
+     * Direct call-site scan of the classes in {@code reanalyzedClasses} only, all other classes keep the
+     * edges recorded in {@code previousState}. The merged result is recorded into {@code nextState}.
+     */
+    public void generateDirectCallGraph(JarClassIndex jar, Set<String> reanalyzedClasses,
+                                        IncrementalState previousState, IncrementalState nextState) {
+        for (SootClass sc : new ArrayList<>(Scene.v().getApplicationClasses())) {
+            String owner = jar.findOwner(sc.getName());
+            if (owner != null && reanalyzedClasses.contains(owner)) {
+                scanCallSites(sc, nextState.getClassState(owner).getEdges());
+            }
+        }
+
+        for (String className : jar.getClassNames()) {
+            IncrementalState.ClassState previous = previousState.getClassState(className);
+            if (!reanalyzedClasses.contains(className) && previous != null) {
+                nextState.getClassState(className).getEdges().putAll(previous.getEdges());
+            }
+        }
 
-                SootMethod srcMethod = e.getSrc().method();
-                SootMethod tgtMethod = e.tgt();
+        reportInJarOrder(jar, nextState);
+        System.out.println("Re-analyzed " + reanalyzedClasses.size() + " of " + jar.getClassNames().size() + " classes, compile-time invoke result has stored in " + outputFileName);
+    }
+
+    private void scanCallSites(SootClass sc, Map<String, List<String>> edges) {
+        if (isJDKClass(sc.getName())) {
+            return;
+        }
 
-                if (tgtMethod != null && tgtMethod.isStatic() && isJDKClass(tgtMethod.getDeclaringClass().toString())) {
-                    if (!isJDKClass(srcMethod.getDeclaringClass().toString())) {
-                        writer.println("Found compile-time invoke: " + srcMethod + " => " + tgtMethod);
-                        callMap.computeIfAbsent(srcMethod, k -> new HashSet<>()).add(tgtMethod);
-                        compileTimeInvokeCount++;
+        for (SootMethod method : new ArrayList<>(sc.getMethods())) {
+            if (!method.isConcrete()) {
+                continue;
+            }
+            Body body;
+            try {
+                body = method.retrieveActiveBody();
+                AnalysisMetrics.BODIES_BUILT.increment();
+            } catch (RuntimeException e) {
+                System.out.println("Failed to retrieve body of " + method + ": " + e.getMessage());
+                continue;
+            }
+
+            for (Unit unit : body.getUnits()) {
+                Stmt stmt = (Stmt) unit;
+                // One edge per statement and target, as in the call graph
+                Set<SootMethod> targets = new LinkedHashSet<>();
+                if (stmt.containsInvokeExpr() && stmt.getInvokeExpr() instanceof StaticInvokeExpr) {
+                    SootMethodRef ref = stmt.getInvokeExpr().getMethodRef();
+                    SootMethod target = ref.tryResolve();
+                    if (target != null && target.isStatic()) {
+                        targets.add(target);
+                    }
+                    addClinits(ref.getDeclaringClass(), targets);
+                }
+                if (stmt.containsFieldRef() && stmt.getFieldRef() instanceof StaticFieldRef) {
+                    addClinits(stmt.getFieldRef().getFieldRef().declaringClass(), targets);
+                }
+                if (stmt instanceof AssignStmt) {
+                    Value rhs = ((AssignStmt) stmt).getRightOp();
+                    Type type = null;
+                    if (rhs instanceof NewExpr) {
+                        type = ((NewExpr) rhs).getBaseType();
+                    } else if (rhs instanceof NewArrayExpr || rhs instanceof NewMultiArrayExpr) {
+                        type = rhs.getType() instanceof ArrayType ? ((ArrayType) rhs.getType()).baseType : rhs.getType();
+                    }
+                    if (type instanceof RefType) {
+                        addClinits(((RefType) type).getSootClass(), targets);
                     }
                 }
 
+                for (SootMethod target : targets) {
+                    if (isJDKClass(target.getDeclaringClass().getName())) {
+                        edges.computeIfAbsent(method.getSignature(), k -> new ArrayList<>()).add(target.getSignature());
+                    }
+                }
             }
+        }
+    }
 
-            writer.println("\nTotal compile-time calls: " + compileTimeInvokeCount);
-        } catch (Exception e) {
+    // Static initializers of the class and its superclasses that run when the class is initialized
+    private void addClinits(SootClass sc, Set<SootMethod> targets) {
+        for (SootMethod clinit : EntryPoints.v().clinitsOf(sc)) {
+            targets.add(clinit);
+        }
+    }
+
+    private CallEdgeReport openReport() throws IOException {
+        return new CallEdgeReport(new File("Result", outputFileName), edgeSink);
+    }
+
+    private void reportInJarOrder(JarClassIndex jar, IncrementalState state) {
+        try (CallEdgeReport report = openReport()) {
+            for (String className : jar.getClassNames()) {
+                report.addEdges(state.getClassState(className).getEdges());
+            }
+        } catch (IOException e) {
             e.printStackTrace();
         }
+    }
 
-        System.out.println("Compile-time invoke result has stored in " + outputFileName);
-        return callMap;
+    // Static call from a non-JDK method into the JDK
+    private boolean isCompileTimeEdge(Edge e) {
+        if (e.getSrc() == null || e.getSrc().method() == null) {
+            return false;
+        }
+
+        SootMethod srcMethod = e.getSrc().method();
+        SootMethod tgtMethod = e.tgt();
+        return tgtMethod != null && tgtMethod.isStatic() && isJDKClass(tgtMethod.getDeclaringClass().toString())
+                && !isJDKClass(srcMethod.getDeclaringClass().toString());
     }
 
     private boolean isJDKClass(String className) {
@@ -6,12 +6,11 @@ import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 public class ExtractModuleInfoClasses {
-    private static final String JDK_JMODS_PATH = "C:\\Program Files\\Java\\jdk-17\\jmods";
-
     public static void main(String[] args) {
         String userDir = System.getProperty("user.dir");
         String outputPath = Paths.get(userDir, "Extracted Module Classes").toString();
-        File jmodsDir = new File(JDK_JMODS_PATH);
+        // The jmods directory of the JDK running this tool unless another one is given
+        File jmodsDir = args.length > 0 ? new File(args[0]) : Paths.get(System.getProperty("java.home"), "jmods").toFile();
         File[] jmodFiles = jmodsDir.listFiles((dir, name) -> name.endsWith(".jmod"));
 
         if (jmodFiles == null) {
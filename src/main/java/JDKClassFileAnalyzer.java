@@ -0,0 +1,173 @@
+import component.ClassFileInfo;
+import component.Utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds PkgInfo.txt from the class files of a JDK instead of its sources, read from the jrt:/ image of an
+ * installed JDK or from its jmods. Every class file is covered, including enums, records and annotation
+ * types, nested classes are named by their binary name ("Map$Entry") and parameter types are written
+ * fully qualified, as they appear in the Soot signatures the model is matched against. Constructors,
+ * static initializers and compiler-generated methods are left out, as in the model built from sources.
+ */
+public class JDKClassFileAnalyzer {
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final Map<String, Map<String, Map<String, String>>> packageClassMethods = new TreeMap<>();
+    private static int classFileCount = 0;
+
+    public static void main(String[] args) {
+        String userDir = System.getProperty("user.dir");
+        String outputPath = Paths.get(userDir, "PkgInfo.txt").toString();
+        String jmodsDir = null;
+        String javaHome = null;
+        for (String arg : args) {
+            if (arg.startsWith("--jmods=")) {
+                jmodsDir = arg.substring("--jmods=".length());
+            } else if (arg.startsWith("--jdk=")) {
+                javaHome = arg.substring("--jdk=".length());
+            }
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            if (jmodsDir != null) {
+                readJmods(jmodsDir);
+            } else {
+                readRuntimeImage(javaHome);
+            }
+            System.out.println("Read " + classFileCount + " class files in " + (System.nanoTime() - startTime) / 1e6 + " ms");
+            writePkgInfo(outputPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        System.out.println("Analysis complete. Results written to " + outputPath);
+    }
+
+    private static void readJmods(String jmodsDir) throws IOException {
+        File[] jmodFiles = new File(jmodsDir).listFiles((dir, name) -> name.endsWith(".jmod"));
+        if (jmodFiles == null || jmodFiles.length == 0) {
+            throw new IOException("No .jmod files found in " + jmodsDir);
+        }
+        Arrays.sort(jmodFiles);
+
+        for (File jmodFile : jmodFiles) {
+            try (ZipFile jmod = new ZipFile(jmodFile)) {
+                Enumeration<? extends ZipEntry> entries = jmod.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.getName().startsWith("classes/") && isModelClassFile(entry.getName())) {
+                        try (InputStream in = jmod.getInputStream(entry)) {
+                            addClassFile(in.readAllBytes());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // The image of the running JDK, or of the JDK installed at javaHome when it is given
+    private static void readRuntimeImage(String javaHome) throws IOException {
+        URI jrt = URI.create("jrt:/");
+        FileSystem image = javaHome == null ? FileSystems.getFileSystem(jrt)
+                : FileSystems.newFileSystem(jrt, Collections.singletonMap("java.home", javaHome));
+        try (Stream<Path> files = Files.walk(image.getPath("/modules"))) {
+            List<Path> classFiles = files.filter(path -> isModelClassFile(path.toString())).sorted().collect(Collectors.toList());
+            for (Path classFile : classFiles) {
+                addClassFile(Files.readAllBytes(classFile));
+            }
+        } finally {
+            if (javaHome != null) {
+                image.close();
+            }
+        }
+    }
+
+    private static boolean isModelClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private static void addClassFile(byte[] bytes) throws IOException {
+        ClassFileInfo cls = new ClassFileInfo(bytes);
+        classFileCount++;
+        String binaryName = cls.getName();
+        int lastDot = binaryName.lastIndexOf('.');
+        String packageName = lastDot < 0 ? "" : binaryName.substring(0, lastDot);
+        Map<String, String> methods = packageClassMethods
+                .computeIfAbsent(packageName, k -> new TreeMap<>())
+                .computeIfAbsent(binaryName.substring(lastDot + 1), k -> new TreeMap<>());
+
+        for (ClassFileInfo.MethodInfo method : cls.getMethods()) {
+            int flags = method.getAccessFlags();
+            if ((flags & (ACC_BRIDGE | ACC_SYNTHETIC)) != 0 || method.getName().startsWith("<")) {
+                continue;
+            }
+            String methodSignature = method.getName() + "(" + String.join(", ", Utils.getParameterTypes(method.getDescriptor())) + ")";
+            methods.put(methodSignature, accessSpecifier(flags));
+        }
+    }
+
+    private static String accessSpecifier(int flags) {
+        if ((flags & ACC_PUBLIC) != 0) {
+            return "public";
+        } else if ((flags & ACC_PROTECTED) != 0) {
+            return "protected";
+        } else if ((flags & ACC_PRIVATE) != 0) {
+            return "private";
+        }
+        return "package-private";
+    }
+
+    private static void writePkgInfo(String outputPath) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
+            int totalClasses = 0;
+            int totalMethods = 0;
+
+            for (var packageEntry : packageClassMethods.entrySet()) {
+                writer.write("Package: " + packageEntry.getKey() + "\n");
+                totalClasses += packageEntry.getValue().size();
+
+                for (var classEntry : packageEntry.getValue().entrySet()) {
+                    writer.write("  Class: " + classEntry.getKey() + "\n");
+                    totalMethods += classEntry.getValue().size();
+
+                    for (var methodEntry : classEntry.getValue().entrySet()) {
+                        writer.write("    Method: " + methodEntry.getKey() + ", Access: " + methodEntry.getValue() + "\n");
+                    }
+                }
+                writer.write("\n");
+            }
+
+            writer.write("Summary Statistics:\n");
+            writer.write("Total Packages: " + packageClassMethods.size() + "\n");
+            writer.write("Total Classes: " + totalClasses + "\n");
+            writer.write("Total Methods: " + totalMethods + "\n");
+        }
+    }
+}
@@ -1,26 +1,48 @@
+import component.AnalysisMetrics;
+import component.CompactJDKModel;
 import component.JDKClass;
 import component.JDKMethod;
+import component.JDKModelSnapshot;
+import component.JDKModelStore;
 import component.JDKModule;
 import component.JDKPackage;
 
 import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JDKDataCombiner {
+    static final String SNAPSHOT_FILE_NAME = "JDKModel.bin";
+    static final String MODEL_STORE_DIR_NAME = "JDKModels";
+    static final String MODEL_STORE_FILE_NAME = "ModelStore.bin";
 
     Map<String, JDKModule> modules = new HashMap<>();
+    private CompactJDKModel compactModel;
+    // Package lookup layer over modules, rebuilt whenever the module/package structure is loaded
+    private final Map<String, JDKPackage> packageIndex = new HashMap<>();
+    private final Map<String, String> packageModuleIndex = new HashMap<>();
+
+    private static final Set<String> PRIMITIVE_TYPES = new HashSet<>(Arrays.asList(
+            "int", "double", "float", "long", "short", "byte", "boolean", "char"));
+    private static final int MAX_CACHED_TYPES = 1 << 16;
+    // Bounded caches of normalized parameter types, filled on first use of a type or signature
+    private final Map<String, String> normalizedTypes = new ConcurrentHashMap<>();
+    private final Map<String, String[]> normalizedStoredParams = new ConcurrentHashMap<>();
+    private final Map<String, String[]> normalizedQueryParams = new ConcurrentHashMap<>();
 
     public static void main(String[] args) {
         String userDir = System.getProperty("user.dir");
         JDKDataCombiner combiner = new JDKDataCombiner();
         String moduleInfoFilePath = Paths.get(userDir, "ModuleInfo.txt").toString();
         String pkgInfoFilePath = Paths.get(userDir, "PkgInfo.txt").toString();
+        String snapshotFilePath = Paths.get(userDir, SNAPSHOT_FILE_NAME).toString();
 
 
         try {
             combiner.parseModuleInfoFile(moduleInfoFilePath);
             combiner.parsePkgInfoFile(pkgInfoFilePath);
+            combiner.writeSnapshot(snapshotFilePath);
             combiner.printData();
 //            combiner.printDataIntoExcel();
             System.out.println("Done");
@@ -29,6 +51,137 @@ public class JDKDataCombiner {
         }
     }
 
+    public void loadModel(String moduleInfoPath, String pkgInfoPath, String snapshotPath) throws IOException {
+        File snapshotFile = new File(snapshotPath);
+        if (snapshotFile.exists()
+                && snapshotFile.lastModified() >= new File(moduleInfoPath).lastModified()
+                && snapshotFile.lastModified() >= new File(pkgInfoPath).lastModified()) {
+            try {
+                loadSnapshot(snapshotPath);
+                return;
+            } catch (IOException e) {
+                System.out.println(e.getMessage() + ", rebuilding it from the model text files");
+            }
+        }
+
+        parseModuleInfoFile(moduleInfoPath);
+        parsePkgInfoFile(pkgInfoPath);
+        writeSnapshot(snapshotPath);
+    }
+
+    /**
+     * Brings the JDK model store in {@code storeDir} up to date and returns the path of the store file. Each
+     * subdirectory of storeDir holds the ModuleInfo.txt and PkgInfo.txt of one JDK version and is named after it;
+     * the store is rebuilt from them when it is missing, older than one of them or holds another set of versions.
+     */
+    static String updateModelStore(String storeDir) throws IOException {
+        File storeFile = new File(storeDir, MODEL_STORE_FILE_NAME);
+        File[] versionDirs = new File(storeDir).listFiles(File::isDirectory);
+        if (versionDirs == null || versionDirs.length == 0) {
+            throw new IOException("No JDK versions found in " + storeDir);
+        }
+        Arrays.sort(versionDirs, (a, b) -> compareVersions(a.getName(), b.getName()));
+
+        List<String> versionNames = new ArrayList<>();
+        boolean stale = !storeFile.exists();
+        for (File versionDir : versionDirs) {
+            versionNames.add(versionDir.getName());
+            stale |= new File(versionDir, "ModuleInfo.txt").lastModified() > storeFile.lastModified()
+                    || new File(versionDir, "PkgInfo.txt").lastModified() > storeFile.lastModified();
+        }
+        // A version directory added with older files, or removed, does not change any modification time
+        if (!stale) {
+            try {
+                stale = !JDKModelStore.readVersionNames(storeFile.getPath()).equals(versionNames);
+            } catch (IOException e) {
+                stale = true;   // Written in an older store format
+            }
+        }
+        if (stale) {
+            LinkedHashMap<String, Map<String, JDKModule>> models = new LinkedHashMap<>();
+            for (File versionDir : versionDirs) {
+                JDKDataCombiner combiner = new JDKDataCombiner();
+                combiner.parseModuleInfoFile(new File(versionDir, "ModuleInfo.txt").getPath());
+                combiner.parsePkgInfoFile(new File(versionDir, "PkgInfo.txt").getPath());
+                models.put(versionDir.getName(), combiner.modules);
+            }
+            JDKModelStore.write(models, storeFile.getPath());
+            System.out.println("Wrote JDK model store of versions " + models.keySet() + " to " + storeFile);
+        }
+        return storeFile.getPath();
+    }
+
+    // One model per JDK version of the store, only those in versions unless it is empty
+    static LinkedHashMap<String, JDKDataCombiner> loadVersions(String storeFile, List<String> versions) throws IOException {
+        LinkedHashMap<String, JDKDataCombiner> combiners = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, JDKModule>> model : JDKModelStore.load(storeFile).entrySet()) {
+            if (versions.isEmpty() || versions.contains(model.getKey())) {
+                JDKDataCombiner combiner = new JDKDataCombiner();
+                combiner.modules = model.getValue();
+                combiner.buildIndex();
+                combiners.put(model.getKey(), combiner);
+            }
+        }
+        for (String version : versions) {
+            if (!combiners.containsKey(version)) {
+                throw new IOException("JDK version " + version + " is not in " + storeFile);
+            }
+        }
+        return combiners;
+    }
+
+    // Numeric comparison of dotted version names, "8" < "11" < "17.0.2"
+    private static int compareVersions(String a, String b) {
+        String[] partsA = a.split("\\.");
+        String[] partsB = b.split("\\.");
+        for (int i = 0; i < Math.min(partsA.length, partsB.length); i++) {
+            int c = partsA[i].matches("\\d+") && partsB[i].matches("\\d+")
+                    ? Integer.compare(Integer.parseInt(partsA[i]), Integer.parseInt(partsB[i])) : partsA[i].compareTo(partsB[i]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(partsA.length, partsB.length);
+    }
+
+    public void writeSnapshot(String filename) throws IOException {
+        JDKModelSnapshot.write(modules, filename);
+    }
+
+    public void loadSnapshot(String filename) throws IOException {
+        modules = JDKModelSnapshot.load(filename);
+        buildIndex();
+    }
+
+    /**
+     * Replaces the loaded model by a {@link CompactJDKModel} of it, after which lookups return read-only views.
+     * Does nothing if the model is compact already.
+     */
+    public void useCompactModel() {
+        if (compactModel != null) {
+            return;
+        }
+        compactModel = CompactJDKModel.build(modules);
+        modules = compactModel.getModules();
+        buildIndex();
+    }
+
+    public boolean isCompactModel() {
+        return compactModel != null;
+    }
+
+    private void buildIndex() {
+        packageIndex.clear();
+        packageModuleIndex.clear();
+        for (JDKModule module : modules.values()) {
+            for (JDKPackage pkg : module.getPackages().values()) {
+                if (packageIndex.putIfAbsent(pkg.getName(), pkg) == null) {
+                    packageModuleIndex.put(pkg.getName(), module.getName());
+                }
+            }
+        }
+    }
+
     public void parseModuleInfoFile(String filename) throws IOException {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
@@ -56,6 +209,7 @@ public class JDKDataCombiner {
                 }
             }
         }
+        buildIndex();
     }
 
     public void parsePkgInfoFile(String filename) throws IOException {
@@ -67,16 +221,19 @@ public class JDKDataCombiner {
             while ((line = reader.readLine()) != null) {
                 if (line.startsWith("Package:")) {
                     String packageName = line.substring(8).trim();
-                    for (JDKModule module : modules.values()) {
-                        if (module.getPackages().containsKey(packageName)) {
-                            currentPackage = module.getPackages().get(packageName);
-                            break;
-                        }
-                    }
+                    currentPackage = packageIndex.get(packageName);
                 } else if (line.contains("Class:")) {
+                    // Packages that are neither exported nor opened are not part of ModuleInfo.txt
+                    if (currentPackage == null) {
+                        currentClass = null;
+                        continue;
+                    }
                     currentClass = new JDKClass(line.substring(8).trim());
                     currentPackage.addClass(currentClass);
                 } else if (line.contains("Method:")) {
+                    if (currentClass == null) {
+                        continue;
+                    }
                     int accessIndex = line.indexOf(", Access: ");
                     String methodName = line.substring(11, accessIndex).trim();
                     String accessType = line.substring(accessIndex + 9).trim();
@@ -113,28 +270,31 @@ public class JDKDataCombiner {
         }
     }
 
+    public JDKPackage findPackage(String packageName) {
+        return packageIndex.get(packageName);
+    }
+
+    public JDKClass findClass(String packageName, String className) {
+        AnalysisMetrics.CLASS_LOOKUPS.increment();
+        JDKPackage pkg = packageIndex.get(packageName);
+        return pkg != null ? pkg.getClass(className) : null;
+    }
+
     public String findCompileTimeInvokedMethod(String packageName, String className, String methodName) {
-        JDKPackage pkg = this.modules.values().stream()
-                .map(module -> module.getPackage(packageName))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
-
-        if (pkg != null) {
-            JDKClass cls = pkg.getClass(className);
-            if (cls != null) {
-                JDKMethod method = cls.getMethod(methodName);
-                if (method != null) {
+        JDKClass cls = findClass(packageName, className);
+        if (cls != null) {
+            JDKMethod method = cls.getMethod(methodName);
+            if (method != null) {
 //                    System.out.println("Found method: " + methodName + " in package: " + packageName + " in class: " + className);
-                    return method.getName();
-                }else{
-                    for(JDKMethod m : cls.getMethods().values()){
-                        if(m.getName().substring(0, m.getName().indexOf("(")).equals(methodName.substring(0, methodName.indexOf("(")))){
-                            if(isMethodMatch(m.getName(), methodName)){
-                                return m.getName();
-                            }
-                        }
-                    }
+                return method.getName();
+            }
+
+            int paramStart = methodName.indexOf('(');
+            String name = methodName.substring(0, paramStart);
+            int arity = methodName.substring(paramStart + 1, methodName.indexOf(')')).split(",").length;
+            for (JDKMethod m : cls.getOverloads(name, arity)) {
+                if (isMethodMatch(m.getName(), methodName)) {
+                    return m.getName();
                 }
             }
         }
@@ -143,28 +303,15 @@ public class JDKDataCombiner {
     }
 
     public String returnCurrentModule(String packageName){
-        for(JDKModule module : modules.values()){
-            if(module.getPackages().containsKey(packageName)){
-                return module.getName();
-            }
-        }
-        return null;
+        return packageModuleIndex.get(packageName);
     }
 
     public String findReflectiveInvokedMethod(String packageName, String className, String methodName) {
-        JDKPackage pkg = this.modules.values().stream()
-                .map(module -> module.getPackage(packageName))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
-
-        if (pkg != null) {
-            JDKClass cls = pkg.getClass(className);
-            if (cls != null) {
-                for(JDKMethod m : cls.getMethods().values()){
-                    if(m.getName().contains(methodName)){
-                        return m.getName();
-                    }
+        JDKClass cls = findClass(packageName, className);
+        if (cls != null) {
+            for(JDKMethod m : cls.getMethods().values()){
+                if(m.getName().contains(methodName)){
+                    return m.getName();
                 }
             }
         }
@@ -173,18 +320,30 @@ public class JDKDataCombiner {
     }
 
     public boolean isMethodMatch(String storedSignature, String querySignature) {
-        String paramsStored = storedSignature.substring(storedSignature.indexOf('(') + 1, storedSignature.indexOf(')'));
-        String paramsQuery = querySignature.substring(querySignature.indexOf('(') + 1, querySignature.indexOf(')'));
-
-        String[] paramsStoredArray = paramsStored.split(", ");
-        String[] paramsQueryArray = paramsQuery.split(",");
+        AnalysisMetrics.METHOD_MATCHES.increment();
+        String[] paramsStoredArray = normalizedStoredParams.get(storedSignature);
+        if (paramsStoredArray == null) {
+            AnalysisMetrics.PARAM_CACHE_MISSES.increment();
+            paramsStoredArray = normalizeParams(storedSignature, ", ");
+            cacheBounded(normalizedStoredParams, storedSignature, paramsStoredArray);
+        } else {
+            AnalysisMetrics.PARAM_CACHE_HITS.increment();
+        }
+        String[] paramsQueryArray = normalizedQueryParams.get(querySignature);
+        if (paramsQueryArray == null) {
+            AnalysisMetrics.PARAM_CACHE_MISSES.increment();
+            paramsQueryArray = normalizeParams(querySignature, ",");
+            cacheBounded(normalizedQueryParams, querySignature, paramsQueryArray);
+        } else {
+            AnalysisMetrics.PARAM_CACHE_HITS.increment();
+        }
 
         if (paramsStoredArray.length != paramsQueryArray.length) {
             return false;
         }
 
         for (int i = 0; i < paramsStoredArray.length; i++) {
-            if (!isTypeMatch(paramsStoredArray[i], paramsQueryArray[i])) {
+            if (!paramsStoredArray[i].equals(paramsQueryArray[i])) {
                 return false;
             }
         }
@@ -196,24 +355,81 @@ public class JDKDataCombiner {
         return normalizeType(typeFromSignature).equals(normalizeType(typeFromQuery));
     }
 
+    private String[] normalizeParams(String signature, String separator) {
+        String params = signature.substring(signature.indexOf('(') + 1, signature.indexOf(')'));
+        String[] paramsArray = params.split(separator);
+        for (int i = 0; i < paramsArray.length; i++) {
+            paramsArray[i] = normalizeType(paramsArray[i]);
+        }
+        return paramsArray;
+    }
+
     private String normalizeType(String type) {
-        String cleanType = type.replaceAll("<.*?>", "").replaceAll("\\[\\]", "");
+        String normalized = normalizedTypes.get(type);
+        if (normalized == null) {
+            AnalysisMetrics.TYPE_CACHE_MISSES.increment();
+            normalized = resolveCanonicalType(type);
+            cacheBounded(normalizedTypes, type, normalized);
+        } else {
+            AnalysisMetrics.TYPE_CACHE_HITS.increment();
+        }
+        return normalized;
+    }
 
-        if (cleanType.matches("int|double|float|long|short|byte|boolean|char")) {
+    /*
+     * Canonical name of a parameter type, resolved against the JDK model instead of Class.forName:
+     * qualified names are taken as binary names of their canonical form, and simple names resolve to
+     * java.lang when the model has such a class there. Anything else keeps its original spelling.
+     */
+    private String resolveCanonicalType(String type) {
+        String cleanType = stripTypeDecorations(type);
+
+        if (PRIMITIVE_TYPES.contains(cleanType)) {
             return cleanType;
         }
+        if (cleanType.indexOf('.') >= 0) {
+            return cleanType.replace('$', '.');
+        }
+        if (findClass("java.lang", cleanType) != null) {
+            return "java.lang." + cleanType;
+        }
+        return type;
+    }
 
-        try {
-            Class<?> clazz = Class.forName(cleanType);
-            return clazz.getCanonicalName();
-        } catch (ClassNotFoundException e) {
-            try {
-                Class<?> clazz = Class.forName("java.lang." + cleanType);
-                return clazz.getCanonicalName();
-            } catch (ClassNotFoundException ex) {
-                return type;
+    // Same result as type.replaceAll("<.*?>", "").replaceAll("\\[\\]", "") without compiling patterns
+    private static String stripTypeDecorations(String type) {
+        if (type.indexOf('<') < 0 && type.indexOf('[') < 0) {
+            return type;
+        }
+
+        StringBuilder withoutTypeArguments = new StringBuilder(type.length());
+        int i = 0;
+        while (i < type.length()) {
+            char c = type.charAt(i);
+            int close = c == '<' ? type.indexOf('>', i + 1) : -1;
+            if (close >= 0) {
+                i = close + 1;
+            } else {
+                withoutTypeArguments.append(c);
+                i++;
+            }
+        }
+
+        StringBuilder cleanType = new StringBuilder(withoutTypeArguments.length());
+        for (int j = 0; j < withoutTypeArguments.length(); j++) {
+            char c = withoutTypeArguments.charAt(j);
+            if (c == '[' && j + 1 < withoutTypeArguments.length() && withoutTypeArguments.charAt(j + 1) == ']') {
+                j++;
+            } else {
+                cleanType.append(c);
             }
         }
+        return cleanType.toString();
     }
-}
 
+    private static <V> void cacheBounded(Map<String, V> cache, String key, V value) {
+        if (cache.size() < MAX_CACHED_TYPES) {
+            cache.put(key, value);
+        }
+    }
+}
@@ -5,79 +5,90 @@ import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class JavaSourceAnalyzer {
-    private static final Map<String, Map<String, Map<String, String>>> packageClassMethods = new HashMap<>();
-    private static final JavaParser parser = new JavaParser();
+    private static final Map<String, Map<String, Map<String, MethodAccess>>> packageClassMethods = new ConcurrentHashMap<>();
+    // JavaParser is not thread-safe, every worker parses with its own
+    private static final ThreadLocal<JavaParser> parser = ThreadLocal.withInitial(JavaParser::new);
+
+    // Access of a method signature and the zip entry it was read from; as in a sequential pass over the
+    // entries, a signature declared more than once keeps the access of the last declaration
+    private static class MethodAccess {
+        final int entryIndex;
+        final String accessSpecifier;
+
+        MethodAccess(int entryIndex, String accessSpecifier) {
+            this.entryIndex = entryIndex;
+            this.accessSpecifier = accessSpecifier;
+        }
+    }
 
     public static void main(String[] args) throws Exception {
         String userDir = System.getProperty("user.dir");
         String zipFilePath = Paths.get(userDir, "src.zip").toString();
         String outputPath = Paths.get(userDir, "PkgInfo.txt").toString();
+        int parallelism = 1;
+        for (String arg : args) {
+            if (arg.equals("--parallel")) {
+                parallelism = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--parallel=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            } else if (!arg.startsWith("--")) {
+                zipFilePath = arg;
+            }
+        }
 
+        long startTime = System.nanoTime();
         try (ZipFile zipFile = new ZipFile(zipFilePath)) {
-            zipFile.stream().filter(entry -> entry.getName().endsWith(".java")).forEach(entry -> {
-                try (var inputStream = zipFile.getInputStream(entry)) {
-                    CompilationUnit compilationUnit = parser.parse(inputStream).getResult().orElse(null);
-                    if (compilationUnit != null) {
-                        // Extract package name
-                        String packageName = compilationUnit.getPackageDeclaration()
-                                .map(pd -> pd.getName().asString())
-                                .orElse("");
-
-                        // Process each class in the file
-                        compilationUnit.findAll(ClassOrInterfaceDeclaration.class).forEach(cls -> {
-                            String className = cls.getNameAsString();
-                            packageClassMethods.putIfAbsent(packageName, new HashMap<>());
-                            packageClassMethods.get(packageName).putIfAbsent(className, new HashMap<>());
-
-                            // Process methods in the class
-                            cls.getMethods().forEach(method -> {
-                                String methodName = method.getNameAsString();
-                                String methodSignature = methodName + method.getParameters().stream()
-                                        .map(p -> p.getType().asString())
-                                        .collect(Collectors.joining(", ", "(", ")"));
-                                String accessSpecifier = method.getAccessSpecifier().asString();
-
-                                if (accessSpecifier.isEmpty()) {
-                                    if (cls.isInterface()) {
-                                        accessSpecifier = "public";
-                                    } else {
-                                        accessSpecifier = "package-private";
-                                    }
-                                }
-
-                                packageClassMethods.get(packageName).get(className).put(methodSignature, accessSpecifier);
-                            });
-                        });
+            List<ZipEntry> entries = zipFile.stream().filter(entry -> entry.getName().endsWith(".java")).collect(Collectors.toList());
+
+            // Workers take the next unparsed entry until none is left, so large files do not hold up a fixed share
+            AtomicInteger nextEntry = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(pool.submit(() -> {
+                    for (int index = nextEntry.getAndIncrement(); index < entries.size(); index = nextEntry.getAndIncrement()) {
+                        parseEntry(zipFile, entries.get(index), index);
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            });
+                }));
+            }
+            pool.shutdown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            System.out.println("Parsed " + entries.size() + " source files with " + parallelism + " threads in " + (System.nanoTime() - startTime) / 1e6 + " ms");
         }
 
-        // Write results to a file
+        // Write results to a file, sorted so that the output does not depend on the order the workers finished in
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
             int totalPackages = packageClassMethods.size();
             int totalClasses = 0;
             int totalMethods = 0;
 
 
-            for (var packageEntry : packageClassMethods.entrySet()) {
+            for (var packageEntry : new TreeMap<>(packageClassMethods).entrySet()) {
                 writer.write("Package: " + packageEntry.getKey() + "\n");
                 totalClasses += packageEntry.getValue().size();
 
-                for (var classEntry : packageEntry.getValue().entrySet()) {
+                for (var classEntry : new TreeMap<>(packageEntry.getValue()).entrySet()) {
                     writer.write("  Class: " + classEntry.getKey() + "\n");
                     totalMethods += classEntry.getValue().size();
 
-                    for (var methodEntry : classEntry.getValue().entrySet()) {
-                        writer.write("    Method: " + methodEntry.getKey() + ", Access: " + methodEntry.getValue() + "\n");
+                    for (var methodEntry : new TreeMap<>(classEntry.getValue()).entrySet()) {
+                        writer.write("    Method: " + methodEntry.getKey() + ", Access: " + methodEntry.getValue().accessSpecifier + "\n");
                     }
                 }
                 writer.write("\n");
@@ -91,4 +102,46 @@ public class JavaSourceAnalyzer {
 
         System.out.println("Analysis complete. Results written to " + outputPath);
     }
+
+    private static void parseEntry(ZipFile zipFile, ZipEntry entry, int entryIndex) {
+        try (var inputStream = zipFile.getInputStream(entry)) {
+            CompilationUnit compilationUnit = parser.get().parse(inputStream).getResult().orElse(null);
+            if (compilationUnit != null) {
+                // Extract package name
+                String packageName = compilationUnit.getPackageDeclaration()
+                        .map(pd -> pd.getName().asString())
+                        .orElse("");
+
+                // Process each class in the file
+                compilationUnit.findAll(ClassOrInterfaceDeclaration.class).forEach(cls -> {
+                    String className = cls.getNameAsString();
+                    Map<String, MethodAccess> methods = packageClassMethods
+                            .computeIfAbsent(packageName, k -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(className, k -> new ConcurrentHashMap<>());
+
+                    // Process methods in the class
+                    cls.getMethods().forEach(method -> {
+                        String methodName = method.getNameAsString();
+                        String methodSignature = methodName + method.getParameters().stream()
+                                .map(p -> p.getType().asString())
+                                .collect(Collectors.joining(", ", "(", ")"));
+                        String accessSpecifier = method.getAccessSpecifier().asString();
+
+                        if (accessSpecifier.isEmpty()) {
+                            if (cls.isInterface()) {
+                                accessSpecifier = "public";
+                            } else {
+                                accessSpecifier = "package-private";
+                            }
+                        }
+
+                        methods.merge(methodSignature, new MethodAccess(entryIndex, accessSpecifier),
+                                (previous, current) -> current.entryIndex >= previous.entryIndex ? current : previous);
+                    });
+                });
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,216 @@
+import component.Utils;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the whole AbuseAnalyzer pipeline on a set of jars, each iteration in a fresh JVM with the result
+ * cache disabled, and takes the median wall time, CPU time, allocation and peak RSS of every phase. The
+ * medians are compared against a baseline file; a metric more than the tolerance above its baseline is a
+ * regression and makes the run exit with status 1.
+ */
+public class MacroBenchmark {
+    private static final String REPORT_FILE_NAME = "Macro_Benchmark.txt";
+    private static final String DEFAULT_BASELINE_FILE_NAME = "MacroBenchmarkBaseline.txt";
+    private static final int DEFAULT_ITERATIONS = 3;
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    // Differences below these are noise whatever the tolerance says
+    private static final long MIN_TIME_DELTA_MS = 100;
+    private static final long MIN_MEMORY_DELTA_MB = 16;
+
+    public static void main(String[] args) {
+        List<String> positionalArgs = new ArrayList<>();
+        List<String> analyzerOptions = new ArrayList<>();
+        int iterations = DEFAULT_ITERATIONS;
+        double tolerance = DEFAULT_TOLERANCE;
+        String baselinePath = Paths.get(System.getProperty("user.dir"), DEFAULT_BASELINE_FILE_NAME).toString();
+        boolean updateBaseline = false;
+        for (String arg : args) {
+            if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            } else if (arg.startsWith("--tolerance=")) {
+                tolerance = Double.parseDouble(arg.substring("--tolerance=".length()));
+            } else if (arg.startsWith("--baseline=")) {
+                baselinePath = arg.substring("--baseline=".length());
+            } else if (arg.equals("--update-baseline")) {
+                updateBaseline = true;
+            } else if (arg.startsWith("--")) {
+                // Everything else is an AbuseAnalyzer option, e.g. --frontend=bytecode
+                analyzerOptions.add(arg);
+            } else {
+                positionalArgs.add(arg);
+            }
+        }
+        if (positionalArgs.isEmpty()) {
+            System.out.println("Usage: java MacroBenchmark <jar_directory|jar_list_file> [--iterations=N] [--tolerance=0.2] [--baseline=file] [--update-baseline] [--analyzer-option ...]");
+            return;
+        }
+
+        try {
+            List<String> jarPaths = collectJarPaths(positionalArgs.get(0));
+            Files.createDirectories(Paths.get("Result"));
+
+            Map<String, Long> medians = new TreeMap<>();
+            List<String> failedJars = new ArrayList<>();
+            for (String jarPath : jarPaths) {
+                Map<String, Long> jarMedians = benchmarkJar(jarPath, iterations, analyzerOptions);
+                if (jarMedians == null) {
+                    failedJars.add(Utils.getJarName(jarPath));
+                    continue;
+                }
+                medians.putAll(jarMedians);
+            }
+
+            Map<String, Long> baseline = readBaseline(Paths.get(baselinePath));
+            int regressions = writeReport(medians, baseline, failedJars, tolerance, iterations, analyzerOptions);
+            if (updateBaseline) {
+                writeBaseline(Paths.get(baselinePath), medians, iterations, analyzerOptions);
+                System.out.println("Baseline has been updated in " + baselinePath);
+            }
+            System.out.println("Macro benchmark done, " + regressions + " regressions, report has been stored in " + REPORT_FILE_NAME);
+            if ((regressions > 0 || !failedJars.isEmpty()) && !updateBaseline) {
+                System.exit(1);
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static List<String> collectJarPaths(String input) throws IOException {
+        Path inputPath = Paths.get(input);
+        if (Files.isDirectory(inputPath)) {
+            try (Stream<Path> files = Files.list(inputPath)) {
+                return files.filter(path -> path.toString().endsWith(".jar"))
+                        .map(path -> path.toAbsolutePath().toString())
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        try (Stream<String> lines = Files.lines(inputPath)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // "jar.phase.metric" -> median over the iterations, null if an iteration failed
+    private static Map<String, Long> benchmarkJar(String jarPath, int iterations, List<String> analyzerOptions) throws IOException, InterruptedException {
+        String jarName = Utils.getJarName(jarPath);
+        Map<String, List<Long>> samples = new TreeMap<>();
+        Path statsFile = Files.createTempFile(jarName, ".stats");
+        try {
+            for (int i = 1; i <= iterations; i++) {
+                System.out.println("Benchmarking " + jarName + ", iteration " + i + " of " + iterations);
+                Files.deleteIfExists(statsFile);
+                int exitCode = runAnalyzer(jarPath, statsFile, analyzerOptions);
+                if (exitCode != 0 || !Files.exists(statsFile)) {
+                    System.out.println("Analysis of " + jarName + " failed (exit code " + exitCode + "), see " + jarName + "_Macro.log");
+                    return null;
+                }
+
+                Properties stats = new Properties();
+                try (Reader reader = Files.newBufferedReader(statsFile)) {
+                    stats.load(reader);
+                }
+                for (String key : stats.stringPropertyNames()) {
+                    samples.computeIfAbsent(jarName + "." + key, k -> new ArrayList<>()).add(Long.parseLong(stats.getProperty(key)));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(statsFile);
+        }
+
+        Map<String, Long> medians = new TreeMap<>();
+        samples.forEach((key, values) -> {
+            Collections.sort(values);
+            medians.put(key, values.get(values.size() / 2));
+        });
+        return medians;
+    }
+
+    private static int runAnalyzer(String jarPath, Path statsFile, List<String> analyzerOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String jvmArg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (jvmArg.startsWith("-X") || jvmArg.startsWith("-D")) {
+                command.add(jvmArg);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("AbuseAnalyzer");
+        command.add(jarPath);
+        command.add("--no-cache");
+        command.add("--phase-stats=" + statsFile);
+        command.addAll(analyzerOptions);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(new File("Result", Utils.getJarName(jarPath) + "_Macro.log"));
+        return pb.start().waitFor();
+    }
+
+    private static Map<String, Long> readBaseline(Path baselineFile) throws IOException {
+        Map<String, Long> baseline = new TreeMap<>();
+        if (!Files.exists(baselineFile)) {
+            return baseline;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            properties.load(reader);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            baseline.put(key, Long.parseLong(properties.getProperty(key)));
+        }
+        return baseline;
+    }
+
+    private static void writeBaseline(Path baselineFile, Map<String, Long> medians, int iterations, List<String> analyzerOptions) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(baselineFile))) {
+            writer.println("# MacroBenchmark medians of " + iterations + " iterations, Java " + System.getProperty("java.version")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " cores, options: " + analyzerOptions);
+            medians.forEach((key, value) -> writer.println(key + "=" + value));
+        }
+    }
+
+    private static int writeReport(Map<String, Long> medians, Map<String, Long> baseline, List<String> failedJars, double tolerance,
+                                   int iterations, List<String> analyzerOptions) throws IOException {
+        int regressions = 0;
+        try (PrintWriter writer = new PrintWriter(new File("Result", REPORT_FILE_NAME), "UTF-8")) {
+            writer.println("Macro Benchmark (medians of " + iterations + " iterations, options: " + analyzerOptions + ", tolerance: " + tolerance + "):");
+            for (Map.Entry<String, Long> entry : medians.entrySet()) {
+                String key = entry.getKey();
+                long value = entry.getValue();
+                Long base = baseline.get(key);
+                if (base == null) {
+                    writer.println(key + ": " + value + " (no baseline)");
+                    continue;
+                }
+
+                long minDelta = key.endsWith("Ms") ? MIN_TIME_DELTA_MS : MIN_MEMORY_DELTA_MB;
+                String verdict = "";
+                if (value > base * (1 + tolerance) && value - base > minDelta) {
+                    verdict = " REGRESSION";
+                    regressions++;
+                } else if (value < base * (1 - tolerance) && base - value > minDelta) {
+                    verdict = " improved";
+                }
+                writer.println(key + ": " + value + " (baseline " + base + ")" + verdict);
+            }
+
+            writer.println("-------------------------------------------------");
+            for (String jarName : failedJars) {
+                writer.println("Jar " + jarName + ": FAILED, see " + jarName + "_Macro.log");
+            }
+            writer.println("Regressions: " + regressions);
+        }
+        return regressions;
+    }
+}
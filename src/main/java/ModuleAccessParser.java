@@ -70,7 +70,7 @@ public class ModuleAccessParser {
 
     }
 
-    private static void validateAccessRules(ModuleAccessRecorder moduleAccessRecorder) {
+    static void validateAccessRules(ModuleAccessRecorder moduleAccessRecorder) {
         HashMap<String, HashMap<String, AccessRule>> allRules = moduleAccessRecorder.getAccessRules();
         for (Map.Entry<String, HashMap<String, AccessRule>> moduleEntry : allRules.entrySet()) {
             String moduleName = moduleEntry.getKey();
@@ -96,7 +96,7 @@ public class ModuleAccessParser {
         System.out.println("Validation complete. No errors found.");
     }
 
-    private static void writeAccessRecorderDataToFile(ModuleAccessRecorder accessRecorder) throws IOException {
+    static void writeAccessRecorderDataToFile(ModuleAccessRecorder accessRecorder) throws IOException {
         String content = accessRecorder.formatAccessRules();
         Path outputPath = Paths.get("ModuleInfo.txt");
         Files.write(outputPath, content.getBytes());
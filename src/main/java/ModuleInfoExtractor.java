@@ -0,0 +1,134 @@
+import component.ModuleAccessRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds ModuleInfo.txt in one step, reading the module descriptors with java.lang.module instead of
+ * extracting module-info.class files, decompiling them with javap and parsing directives.txt files.
+ * The descriptors come from the running JDK, the JDK at --jdk=<java_home> or the jmods in --jmods=<dir>.
+ */
+public class ModuleInfoExtractor {
+
+    public static void main(String[] args) {
+        String jmodsDir = null;
+        String javaHome = null;
+        for (String arg : args) {
+            if (arg.startsWith("--jmods=")) {
+                jmodsDir = arg.substring("--jmods=".length());
+            } else if (arg.startsWith("--jdk=")) {
+                javaHome = arg.substring("--jdk=".length());
+            }
+        }
+
+        long startTime = System.nanoTime();
+        ModuleAccessRecorder accessRecorder = new ModuleAccessRecorder();
+        try {
+            List<ModuleDescriptor> descriptors;
+            if (jmodsDir != null) {
+                descriptors = readJmodDescriptors(jmodsDir);
+            } else if (javaHome != null) {
+                descriptors = readRuntimeImageDescriptors(javaHome);
+            } else {
+                descriptors = readDescriptors(ModuleFinder.ofSystem());
+            }
+            for (ModuleDescriptor descriptor : descriptors) {
+                recordAccessRules(descriptor, accessRecorder);
+            }
+            System.out.println("Read " + descriptors.size() + " module descriptors in " + (System.nanoTime() - startTime) / 1e6 + " ms");
+            ModuleAccessParser.validateAccessRules(accessRecorder);
+            ModuleAccessParser.writeAccessRecorderDataToFile(accessRecorder);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading module descriptors: " + e.getMessage());
+        }
+    }
+
+    private static List<ModuleDescriptor> readDescriptors(ModuleFinder finder) {
+        List<ModuleDescriptor> descriptors = new ArrayList<>();
+        for (ModuleReference reference : finder.findAll()) {
+            descriptors.add(reference.descriptor());
+        }
+        return descriptors;
+    }
+
+    // ModuleFinder only reads jmods when linking, so the descriptor is taken from each jmod's module-info.class
+    private static List<ModuleDescriptor> readJmodDescriptors(String jmodsDir) throws IOException {
+        File[] jmodFiles = new File(jmodsDir).listFiles((dir, name) -> name.endsWith(".jmod"));
+        if (jmodFiles == null || jmodFiles.length == 0) {
+            throw new IOException("No .jmod files found in " + jmodsDir);
+        }
+
+        List<ModuleDescriptor> descriptors = new ArrayList<>();
+        for (File jmodFile : jmodFiles) {
+            try (ZipFile jmod = new ZipFile(jmodFile)) {
+                ZipEntry moduleInfoEntry = jmod.getEntry("classes/module-info.class");
+                if (moduleInfoEntry == null) {
+                    System.out.println("module-info.class not found in " + jmodFile.getName());
+                    continue;
+                }
+                try (InputStream in = jmod.getInputStream(moduleInfoEntry)) {
+                    descriptors.add(ModuleDescriptor.read(in));
+                }
+            }
+        }
+        return descriptors;
+    }
+
+    // The system modules of another JDK are only reachable through its own jrt:/ file system
+    private static List<ModuleDescriptor> readRuntimeImageDescriptors(String javaHome) throws IOException {
+        List<ModuleDescriptor> descriptors = new ArrayList<>();
+        try (FileSystem image = FileSystems.newFileSystem(URI.create("jrt:/"), Collections.singletonMap("java.home", javaHome));
+             DirectoryStream<Path> modules = Files.newDirectoryStream(image.getPath("/modules"))) {
+            for (Path module : modules) {
+                Path moduleInfo = module.resolve("module-info.class");
+                if (Files.exists(moduleInfo)) {
+                    try (InputStream in = Files.newInputStream(moduleInfo)) {
+                        descriptors.add(ModuleDescriptor.read(in));
+                    }
+                }
+            }
+        }
+        return descriptors;
+    }
+
+    // The same rules ModuleAccessParser takes from the exports and opens lines of directives.txt
+    private static void recordAccessRules(ModuleDescriptor descriptor, ModuleAccessRecorder accessRecorder) {
+        String moduleName = descriptor.name();
+        for (ModuleDescriptor.Exports exports : descriptor.exports()) {
+            if (exports.isQualified()) {
+                accessRecorder.addAccessRule(moduleName, exports.source(), "exports to", new HashSet<>(exports.targets()));
+            } else {
+                accessRecorder.addAccessRule(moduleName, exports.source(), "exports", null);
+            }
+        }
+        // An open module opens all of its packages
+        if (descriptor.isOpen()) {
+            for (String packageName : descriptor.packages()) {
+                accessRecorder.addAccessRule(moduleName, packageName, "opens", null);
+            }
+        }
+        for (ModuleDescriptor.Opens opens : descriptor.opens()) {
+            if (opens.isQualified()) {
+                accessRecorder.addAccessRule(moduleName, opens.source(), "opens to", new HashSet<>(opens.targets()));
+            } else {
+                accessRecorder.addAccessRule(moduleName, opens.source(), "opens", null);
+            }
+        }
+    }
+}
@@ -1,4 +1,9 @@
+import component.AnalysisMetrics;
+import component.IncrementalState;
 import component.MethodConstants;
+import component.PhaseStats;
+import component.ReflectiveCallContext;
+import component.ReflectiveMethodResult;
 import component.Utils;
 
 import soot.*;
@@ -9,10 +14,12 @@ import soot.options.Options;
 import soot.toolkits.graph.BriefUnitGraph;
 import soot.toolkits.graph.UnitGraph;
 import soot.toolkits.scalar.SimpleLocalDefs;
-import soot.util.Chain;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
 
 public class ReflectionAnalyzer extends SceneTransformer {
     private static final String CLASS_FILE_LIST = "class_file_directory_list.txt";
@@ -23,8 +30,20 @@ public class ReflectionAnalyzer extends SceneTransformer {
     private static int nonStringConstantMethodNameCount = 0;
     private static int methodNameWithoutClassNameCount = 0;
     private static int fullMethodNameCount = 0;
-    private static Map<SootMethod, Map<String, Integer>> fullMethodCounts = new LinkedHashMap<>();
+    // Methods analyzed per round of the parallel pass, bounding how many bodies are loaded at once
+    private static final int PARALLEL_BATCH_SIZE = 512;
+    // The "Full Method Invoke" section is spilled to a temporary file and appended at the end
+    private static File fullMethodSpillFile;
+    private static PrintWriter fullMethodSpill;
     private static Map<String, Integer> partMethodCounts = new LinkedHashMap<>();
+    private BiConsumer<SootMethod, Map<String, Integer>> fullMethodListener;
+    private ReflectiveCallContext callContext = new ReflectiveCallContext();
+    private int parallelism = 1;
+    private PhaseStats phaseStats;
+    // Incremental mode: methods of classes outside reanalyzedClasses take their result from previousState
+    private Set<String> reanalyzedClasses;
+    private IncrementalState previousState;
+    private IncrementalState nextState;
 
     public static void main(String[] args) {
         try (BufferedReader reader = new BufferedReader(new FileReader(CLASS_FILE_LIST))) {
@@ -43,19 +62,21 @@ public class ReflectionAnalyzer extends SceneTransformer {
             e.printStackTrace();
         }
 
+        openFullMethodSpill();
         ReflectionAnalyzer transformer = new ReflectionAnalyzer();
 
-        transformer.run();
-        displayResults();
-
-        System.out.println("Reflective Analysis result written to " + outputFileName);
-
-        writer.close();
+        try {
+            transformer.run();
+            displayResults();
+            System.out.println("Reflective Analysis result written to " + outputFileName);
+        } finally {
+            closeRunFiles();
+        }
     }
 
     private static String createFileName(List<String> classPaths) {
         return classPaths.stream()
-                .map(path -> path.substring(path.lastIndexOf('\\') + 1).replace(".jar", ""))
+                .map(Utils::getJarName)
                 .reduce("", (acc, name) -> acc + name + "_") + "Reflect_Invoke.txt";
     }
 
@@ -73,6 +94,7 @@ public class ReflectionAnalyzer extends SceneTransformer {
     }
 
     public void initializeAndRun(List<String> classPaths) {
+        resetRunState();
         paths.addAll(classPaths);
         outputFileName = createFileName(paths);
         try{
@@ -81,13 +103,51 @@ public class ReflectionAnalyzer extends SceneTransformer {
             e.printStackTrace();
         }
 
+        openFullMethodSpill();
         System.out.println("Start analysis from: " + paths);
-        run();
-        displayResults();
+        try {
+            run();
+            displayResults();
+            System.out.println("Reflective Analysis result written to " + outputFileName);
+        } finally {
+            closeRunFiles();
+        }
+    }
+
+    // Also runs when the pass throws, so a long-running process keeps no open files or spill files of failed runs
+    private static void closeRunFiles() {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (fullMethodSpill != null) {
+            fullMethodSpill.close();
+            fullMethodSpill = null;
+        }
+        if (fullMethodSpillFile != null) {
+            fullMethodSpillFile.delete();
+            fullMethodSpillFile = null;
+        }
+    }
 
-        System.out.println("Reflective Analysis result written to " + outputFileName);
+    // A long-running process analyzes one jar after another, each starting from a fresh Scene and counts
+    private static void resetRunState() {
+        G.reset();
+        paths.clear();
+        totalReflectInvokeCount = 0;
+        nonStringConstantMethodNameCount = 0;
+        methodNameWithoutClassNameCount = 0;
+        fullMethodNameCount = 0;
+        partMethodCounts.clear();
+    }
 
-        writer.close();
+    private static void openFullMethodSpill() {
+        try {
+            fullMethodSpillFile = File.createTempFile("full_method_invoke", ".txt");
+            fullMethodSpill = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fullMethodSpillFile), "UTF-8")));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private static void displayResults() {
@@ -98,12 +158,18 @@ public class ReflectionAnalyzer extends SceneTransformer {
             writer.println("Total Method Names without Class Name: " + methodNameWithoutClassNameCount);
             writer.println("Total Full Method Names: " + fullMethodNameCount);
 
-            if(!fullMethodCounts.isEmpty()){
-                writer.println("Full Method Invoke:");
-                fullMethodCounts.forEach((declaringClass, methods) -> {
-                    writer.println("Class " + declaringClass + " invokes:");
-                    methods.forEach((method, count) -> writer.println("\tMethod " + method + ": " + count));
-                });
+            if (fullMethodSpill != null) {
+                fullMethodSpill.close();
+                if (fullMethodSpillFile.length() > 0) {
+                    writer.println("Full Method Invoke:");
+                    try (Reader spilled = new InputStreamReader(new FileInputStream(fullMethodSpillFile), "UTF-8")) {
+                        spilled.transferTo(writer);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                fullMethodSpillFile.delete();
+                fullMethodSpill = null;
             }
 
             if(!partMethodCounts.isEmpty()){
@@ -113,8 +179,26 @@ public class ReflectionAnalyzer extends SceneTransformer {
         }
     }
 
-    public Map<SootMethod, Map<String,Integer>> getFullMethodCounts() {
-        return fullMethodCounts;
+    // Records loading the jar into the Scene as the sootLoad phase
+    public void setPhaseStats(PhaseStats phaseStats) {
+        this.phaseStats = phaseStats;
+    }
+
+    // Number of threads analyzing method bodies, 1 keeps the original sequential pass
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    // Every result, analyzed or taken over, is also recorded into nextState for the following run
+    public void setIncremental(Set<String> reanalyzedClasses, IncrementalState previousState, IncrementalState nextState) {
+        this.reanalyzedClasses = reanalyzedClasses;
+        this.previousState = previousState;
+        this.nextState = nextState;
+    }
+
+    // Receives the full method names of each method as soon as the method is analyzed, in method order
+    public void setFullMethodListener(BiConsumer<SootMethod, Map<String, Integer>> fullMethodListener) {
+        this.fullMethodListener = fullMethodListener;
     }
 
 //    public Map<String, Integer> getPartMethodCounts() {
@@ -124,15 +208,34 @@ public class ReflectionAnalyzer extends SceneTransformer {
     @Override
     protected void internalTransform(String s, Map<String, String> map) {
         Options.v().set_process_dir(new ArrayList<>(paths));
+        if (phaseStats != null) {
+            phaseStats.begin("sootLoad");
+        }
         Scene.v().loadNecessaryClasses();
+        AnalysisMetrics.CLASSES_LOADED.add(Scene.v().getClasses().size());
+        if (phaseStats != null) {
+            phaseStats.end("sootLoad");
+        }
+        callContext = new ReflectiveCallContext();
 
         Set<SootMethod> appMethods = Utils.getApplicationMethods();
         if(writer != null){
             writer.println("Total application methods running in reflection analyzing: " + appMethods.size());
+            if (parallelism > 1) {
+                analyzeInParallel(appMethods);
+                return;
+            }
+
             for (SootMethod method : appMethods) {
                 if (Utils.isApplicationMethod(method)) {
+                    if (isUnchanged(method)) {
+                        mergeResult(method, previousResult(method));
+                        continue;
+                    }
+
                     if (method.isConcrete()) {
                         Body body = method.retrieveActiveBody();
+                        AnalysisMetrics.BODIES_BUILT.increment();
                         PackManager.v().getPack("jtp").apply(body);
                         if (Options.v().validate()) {
                             body.validate();
@@ -140,7 +243,8 @@ public class ReflectionAnalyzer extends SceneTransformer {
                     }
 
                     if (method.hasActiveBody()) {
-                        doAnalysisOnMethod(method);
+                        mergeResult(method, analyzeMethod(method));
+                        method.releaseActiveBody();
                     }
 
                     if (Thread.interrupted()) {
@@ -157,7 +261,135 @@ public class ReflectionAnalyzer extends SceneTransformer {
         }
     }
 
-    private void doAnalysisOnMethod(SootMethod method) {
+    private void analyzeInParallel(Set<SootMethod> appMethods) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<SootMethod> batch = new ArrayList<>();
+            for (SootMethod method : appMethods) {
+                if (Utils.isApplicationMethod(method)) {
+                    batch.add(method);
+                    if (batch.size() == PARALLEL_BATCH_SIZE) {
+                        if (!analyzeBatch(batch, pool)) {
+                            return;
+                        }
+                        batch.clear();
+                    }
+                }
+            }
+            analyzeBatch(batch, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Analyzes one batch of methods in parallel and merges it, false if the analysis was interrupted
+    private boolean analyzeBatch(List<SootMethod> batch, ForkJoinPool pool) {
+        // Soot loads bodies and resolves references lazily and is not thread-safe doing so,
+        // so everything that may still modify the Scene happens here before any worker starts
+        List<SootMethod> analyzedMethods = new ArrayList<>();
+        List<ReflectiveMethodResult> previousResults = new ArrayList<>();
+        for (SootMethod method : batch) {
+            if (isUnchanged(method)) {
+                analyzedMethods.add(method);
+                previousResults.add(previousResult(method));
+                continue;
+            }
+
+            if (method.isConcrete()) {
+                Body body = method.retrieveActiveBody();
+                AnalysisMetrics.BODIES_BUILT.increment();
+                PackManager.v().getPack("jtp").apply(body);
+                if (Options.v().validate()) {
+                    body.validate();
+                }
+            }
+
+            if (method.hasActiveBody()) {
+                resolveReferences(method.getActiveBody());
+                analyzedMethods.add(method);
+                previousResults.add(null);
+            }
+
+            if (Thread.interrupted()) {
+                return false;
+            }
+        }
+        callContext.resolve();
+
+        List<ForkJoinTask<ReflectiveMethodResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < analyzedMethods.size(); i++) {
+            SootMethod method = analyzedMethods.get(i);
+            ReflectiveMethodResult previous = previousResults.get(i);
+            tasks.add(previous != null ? pool.submit(() -> previous) : pool.submit(() -> analyzeMethod(method)));
+        }
+        // Merging in method order keeps the report identical to the sequential pass
+        for (int i = 0; i < tasks.size(); i++) {
+            SootMethod method = analyzedMethods.get(i);
+            mergeResult(method, tasks.get(i).join());
+            if (previousResults.get(i) == null) {
+                method.releaseActiveBody();
+            }
+        }
+        return true;
+    }
+
+    private void resolveReferences(Body body) {
+        for (Unit unit : body.getUnits()) {
+            Stmt stmt = (Stmt) unit;
+            try {
+                if (stmt.containsInvokeExpr()) {
+                    stmt.getInvokeExpr().getMethod();
+                }
+                if (stmt.containsFieldRef()) {
+                    stmt.getFieldRef().getField();
+                }
+            } catch (RuntimeException e) {
+                // Left unresolved, the analysis resolves it again only if it actually reaches this reference
+            }
+        }
+    }
+
+    private boolean isUnchanged(SootMethod method) {
+        return reanalyzedClasses != null && !reanalyzedClasses.contains(method.getDeclaringClass().getName());
+    }
+
+    private ReflectiveMethodResult previousResult(SootMethod method) {
+        IncrementalState.ClassState cls = previousState.getClassState(method.getDeclaringClass().getName());
+        ReflectiveMethodResult result = cls != null ? cls.getReflectiveResults().get(method.getSignature()) : null;
+        return result != null ? result : new ReflectiveMethodResult();
+    }
+
+    private ReflectiveMethodResult analyzeMethod(SootMethod method) {
+        ReflectiveMethodResult result = new ReflectiveMethodResult();
+        doAnalysisOnMethod(method, result);
+        return result;
+    }
+
+    private void mergeResult(SootMethod method, ReflectiveMethodResult result) {
+        writer.print(result.getText());
+        totalReflectInvokeCount += result.reflectInvokeCount;
+        nonStringConstantMethodNameCount += result.nonStringConstantMethodNameCount;
+        methodNameWithoutClassNameCount += result.methodNameWithoutClassNameCount;
+        fullMethodNameCount += result.fullMethodNameCount;
+        if (!result.getFullMethodCounts().isEmpty()) {
+            fullMethodSpill.println("Class " + method + " invokes:");
+            result.getFullMethodCounts().forEach((fullMethod, count) -> fullMethodSpill.println("\tMethod " + fullMethod + ": " + count));
+            if (fullMethodListener != null) {
+                fullMethodListener.accept(method, result.getFullMethodCounts());
+            }
+        }
+        for (String methodNameOnly : result.getPartMethodNames()) {
+            incrementPartMethodCounts(methodNameOnly);
+        }
+        if (nextState != null && !result.isEmpty()) {
+            IncrementalState.ClassState cls = nextState.getClassState(method.getDeclaringClass().getName());
+            if (cls != null) {
+                cls.getReflectiveResults().put(method.getSignature(), result);
+            }
+        }
+    }
+
+    private void doAnalysisOnMethod(SootMethod method, ReflectiveMethodResult result) {
         int methodReflectInvokeCount = 0;
         Body body = method.getActiveBody();
         PatchingChain<Unit> units = body.getUnits();
@@ -170,7 +402,7 @@ public class ReflectionAnalyzer extends SceneTransformer {
                 Value rightOp = assignStmt.getRightOp();
                 if (rightOp instanceof VirtualInvokeExpr) {
                     VirtualInvokeExpr invokeExpr = (VirtualInvokeExpr) rightOp;
-                    methodReflectInvokeCount = identifyReflectiveCall(method, methodReflectInvokeCount, localDefs, assignStmt, invokeExpr);
+                    methodReflectInvokeCount = identifyReflectiveCall(method, methodReflectInvokeCount, localDefs, assignStmt, invokeExpr, result);
                 }
             } else if (unit instanceof JInvokeStmt) {
                 JInvokeStmt invokeStmt = (JInvokeStmt) unit;
@@ -178,33 +410,23 @@ public class ReflectionAnalyzer extends SceneTransformer {
                 if (checkForReflectInvocation(invokeExpr)) {
                     if (invokeStmt.getInvokeExpr() instanceof VirtualInvokeExpr) {
                         VirtualInvokeExpr virtualInvokeExpr = (VirtualInvokeExpr) invokeStmt.getInvokeExpr();
-                        methodReflectInvokeCount = identifyReflectiveCall(method, methodReflectInvokeCount, localDefs, invokeStmt, virtualInvokeExpr);
+                        methodReflectInvokeCount = identifyReflectiveCall(method, methodReflectInvokeCount, localDefs, invokeStmt, virtualInvokeExpr, result);
                     }
                 }
             }
         }
 
-        totalReflectInvokeCount += methodReflectInvokeCount;
+        result.reflectInvokeCount += methodReflectInvokeCount;
     }
 
-    public int identifyReflectiveCall(SootMethod method, int methodReflectInvokeCount, SimpleLocalDefs defs, Stmt inStmt, VirtualInvokeExpr invokeExpr) {
+    public int identifyReflectiveCall(SootMethod method, int methodReflectInvokeCount, SimpleLocalDefs defs, Stmt inStmt, VirtualInvokeExpr invokeExpr, ReflectiveMethodResult result) {
         if (checkForReflectInvocation(invokeExpr)) {
-            Hierarchy hierarchy = Scene.v().getActiveHierarchy();
-            SootClass classLoaderClass = null;
-
-            Chain<SootClass> libraryClasses = Scene.v().getLibraryClasses();
-            for (SootClass libraryClass : libraryClasses) {
-                if (libraryClass.getName().equals("java.lang.ClassLoader")) {
-                    classLoaderClass = libraryClass;
-                    break;
-                }
-            }
-
             methodReflectInvokeCount++;
+            AnalysisMetrics.REFLECTIVE_SITES.increment();
 //            System.out.println(method.getSignature() + " has reflective invocation: " + invokeExpr.getMethod().getDeclaringClass() + "." + invokeExpr.getMethod().getName());
             if (invokeExpr.getMethod().getDeclaringClass().getName().equals("java.lang.reflect.Method")) {
                 if (!(invokeExpr.getBase() instanceof Local)) {
-                    writer.println("Method invocation is not on a local variable");
+                    result.getWriter().println("Method invocation is not on a local variable");
                     return methodReflectInvokeCount;
                 }
 
@@ -217,8 +439,8 @@ public class ReflectionAnalyzer extends SceneTransformer {
                         if (rightOp instanceof VirtualInvokeExpr) {
                             VirtualInvokeExpr virtualInvokeExpr = (VirtualInvokeExpr) rightOp;
                             if (virtualInvokeExpr.getMethod().getDeclaringClass().getName().equals("java.lang.Class") && MethodConstants.reflectiveGetMethodsSet.contains(virtualInvokeExpr.getMethod().getName())) {
-                                boolean result = handleReflectiveGetMethods(virtualInvokeExpr, assignStmt, defs, inStmt, hierarchy, classLoaderClass, method);
-                                if (!result) {
+                                boolean handled = handleReflectiveGetMethods(virtualInvokeExpr, assignStmt, defs, inStmt, method, result);
+                                if (!handled) {
                                     continue;
                                 }
                             }
@@ -234,16 +456,17 @@ public class ReflectionAnalyzer extends SceneTransformer {
     }
 
     private boolean handleReflectiveGetMethods(VirtualInvokeExpr getDeclaredMethodExpr, JAssignStmt methodAssignStmt, SimpleLocalDefs defs, Stmt inStmt,
-                                               Hierarchy hierarchy, SootClass classLoaderClass, SootMethod method) {
+                                               SootMethod method, ReflectiveMethodResult result) {
+        PrintWriter out = result.getWriter();
         if (!(getDeclaredMethodExpr.getArg(0) instanceof StringConstant)) {
-            writer.println("First argument of getDeclaredMethod is not a string constant");
-            nonStringConstantMethodNameCount++;
+            out.println("First argument of getDeclaredMethod is not a string constant");
+            result.nonStringConstantMethodNameCount++;
             return false;
         }
 
         StringConstant reflectedMethodName = (StringConstant) getDeclaredMethodExpr.getArg(0);
         if (!(getDeclaredMethodExpr.getBase() instanceof Local)) {
-            writer.println("Reflective invocation receives a non-local method name at " + methodAssignStmt);
+            out.println("Reflective invocation receives a non-local method name at " + methodAssignStmt);
             return false;
         }
 
@@ -262,25 +485,25 @@ public class ReflectionAnalyzer extends SceneTransformer {
                     if (invokeExpr.getArg(0) instanceof StringConstant) {
                         StringConstant classNameConst = (StringConstant) invokeExpr.getArg(0);
                         String fullMethodName = classNameConst.value + "." + reflectedMethodName.value;
-                        writer.println("\twith class: " + classNameConst.value);
-                        writer.println("\tFound reflective invocation of " + fullMethodName);
-                        writer.println("Class " + method.getDeclaringClass() + " invokes " + classNameConst.value);
+                        out.println("\twith class: " + classNameConst.value);
+                        out.println("\tFound reflective invocation of " + fullMethodName);
+                        out.println("Class " + method.getDeclaringClass() + " invokes " + classNameConst.value);
                         foundClassName = true;
-                        incrementFullMethodCounts(method, fullMethodName);
-                        fullMethodNameCount++;
+                        result.addFullMethod(fullMethodName);
+                        result.fullMethodNameCount++;
                     }
-                } else if (classLoaderClass != null) {
-                    if (hierarchy.isClassSubclassOfIncluding(invokeExpr.getMethod().getDeclaringClass(), classLoaderClass)) {
+                } else if (callContext.getClassLoaderClass() != null) {
+                    if (callContext.isClassLoader(invokeExpr.getMethod().getDeclaringClass())) {
                         if (invokeExpr.getMethod().getName().equals("loadClass")) {
                             if (invokeExpr.getArg(0) instanceof StringConstant) {
                                 StringConstant classNameConst = (StringConstant) invokeExpr.getArg(0);
                                 String fullMethodName = classNameConst.value + "." + reflectedMethodName.value;
-                                writer.println("\twith class: " + classNameConst.value);
-                                writer.println("\tFound reflective invocation of " + fullMethodName);
-                                writer.println("Class " + method.getDeclaringClass() + " invokes " + classNameConst.value);
+                                out.println("\twith class: " + classNameConst.value);
+                                out.println("\tFound reflective invocation of " + fullMethodName);
+                                out.println("Class " + method.getDeclaringClass() + " invokes " + classNameConst.value);
                                 foundClassName = true;
-                                incrementFullMethodCounts(method, fullMethodName);
-                                fullMethodNameCount++;
+                                result.addFullMethod(fullMethodName);
+                                result.fullMethodNameCount++;
                             }
                         }
                     }
@@ -296,27 +519,27 @@ public class ReflectionAnalyzer extends SceneTransformer {
                                     if (rightOpBase instanceof InvokeExpr) {
                                         InvokeExpr baseInvokeExpr = (InvokeExpr) rightOpBase;
                                         String fullMethodName = baseInvokeExpr.getMethod().getReturnType() + "." + reflectedMethodName.value;
-                                        writer.println("\tFound reflective invocation of " + fullMethodName);
+                                        out.println("\tFound reflective invocation of " + fullMethodName);
 
                                         foundClassName = true;
-                                        incrementFullMethodCounts(method, fullMethodName);
-                                        fullMethodNameCount++;
+                                        result.addFullMethod(fullMethodName);
+                                        result.fullMethodNameCount++;
                                     } else if (rightOpBase instanceof FieldRef) {
                                         FieldRef fieldRef = (FieldRef) rightOpBase;
                                         String fullMethodName = fieldRef.getField().getType() + "." + reflectedMethodName.value;
-                                        writer.println("\tFound reflective invocation of " + fullMethodName);
+                                        out.println("\tFound reflective invocation of " + fullMethodName);
                                         foundClassName = true;
-                                        incrementFullMethodCounts(method, fullMethodName);
-                                        fullMethodNameCount++;
+                                        result.addFullMethod(fullMethodName);
+                                        result.fullMethodNameCount++;
                                     }
                                 }
                             }
                         }
                         if (!foundClassName) {
                             foundClassName = true;
-                            writer.println("\tCould not find class name for the following reflectively invoked method: " + reflectedMethodName.value);
-                            incrementPartMethodCounts(reflectedMethodName.value);
-                            methodNameWithoutClassNameCount++;
+                            out.println("\tCould not find class name for the following reflectively invoked method: " + reflectedMethodName.value);
+                            result.addPartMethod(reflectedMethodName.value);
+                            result.methodNameWithoutClassNameCount++;
                         }
                     }
                 }
@@ -324,18 +547,18 @@ public class ReflectionAnalyzer extends SceneTransformer {
             } else if (rightOp instanceof ClassConstant) {
                 ClassConstant classConstant = (ClassConstant) rightOp;
                 String fullMethodName = classConstant.getValue() + "." + reflectedMethodName.value;
-                writer.println("\tFound reflective invocation of " + fullMethodName);
-                writer.println("\tClass " + method.getDeclaringClass() + " invokes " + classConstant.getValue());
+                out.println("\tFound reflective invocation of " + fullMethodName);
+                out.println("\tClass " + method.getDeclaringClass() + " invokes " + classConstant.getValue());
                 foundClassName = true;
-                incrementFullMethodCounts(method, fullMethodName);
-                fullMethodNameCount++;
+                result.addFullMethod(fullMethodName);
+                result.fullMethodNameCount++;
             }
         }
 
         if (!foundClassName) {
-            writer.println("Could not find class name for reflective invocation at " + methodAssignStmt);
-            incrementPartMethodCounts(reflectedMethodName.value);
-            methodNameWithoutClassNameCount++;
+            out.println("Could not find class name for reflective invocation at " + methodAssignStmt);
+            result.addPartMethod(reflectedMethodName.value);
+            result.methodNameWithoutClassNameCount++;
         }
 
         return true;
@@ -349,14 +572,6 @@ public class ReflectionAnalyzer extends SceneTransformer {
                 invokeExpr.getMethod().getDeclaringClass().getPackageName().startsWith("java.lang.invoke");
     }
 
-    private void incrementFullMethodCounts(SootMethod method, String fullMethodName) {
-        Map<String, Integer> methodCounts = fullMethodCounts.getOrDefault(method, new HashMap<>());
-        int count = methodCounts.getOrDefault(fullMethodName, 0);
-        count++;
-        methodCounts.put(fullMethodName, count);
-        fullMethodCounts.put(method, methodCounts);
-    }
-
     private void incrementPartMethodCounts(String methodNameOnly) {
         Integer count = null;
         if (partMethodCounts.containsKey(methodNameOnly)) {
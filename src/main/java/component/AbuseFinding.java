@@ -0,0 +1,149 @@
+package component;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * One detected abuse: the reason code plus the context its message is formatted from.
+ * For reflective findings the target member is the normalized "pkg.Class.method" descriptor and the
+ * target class its simple name; for compile-time findings they are the invoked method's signature and
+ * the fully qualified declaring class.
+ */
+public class AbuseFinding {
+    private final AbuseReason reason;
+    private final String module;
+    private final String sourceMethod;
+    private final String sourceClass;
+    private final String targetMember;
+    private final String targetClass;
+    private final String packageName;
+    private final String accessType;
+    private final List<String> allowedModules;
+    private final String retrieveMethod;
+
+    public AbuseFinding(AbuseReason reason, String module, String sourceMethod, String sourceClass, String targetMember,
+                        String targetClass, String packageName, String accessType, List<String> allowedModules, String retrieveMethod) {
+        this.reason = reason;
+        this.module = module;
+        this.sourceMethod = sourceMethod;
+        this.sourceClass = sourceClass;
+        this.targetMember = targetMember;
+        this.targetClass = targetClass;
+        this.packageName = packageName;
+        this.accessType = accessType;
+        this.allowedModules = allowedModules;
+        this.retrieveMethod = retrieveMethod;
+    }
+
+    public AbuseReason getReason() {
+        return reason;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public String getSourceMethod() {
+        return sourceMethod;
+    }
+
+    public String getSourceClass() {
+        return sourceClass;
+    }
+
+    public String getTargetMember() {
+        return targetMember;
+    }
+
+    public String getTargetClass() {
+        return targetClass;
+    }
+
+    // Fully qualified name of the target class, whichever kind of finding this is
+    public String getTargetClassName() {
+        if (reason.isReflective() && packageName != null) {
+            return packageName + "." + targetClass;
+        }
+        return targetClass;
+    }
+
+    // Name of the target member without its class, e.g. "defineClass" or "<clinit>()"
+    public String getTargetMemberName() {
+        if (reason.isReflective()) {
+            return targetMember.substring(targetMember.lastIndexOf('.') + 1);
+        }
+        return targetMember;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getAccessType() {
+        return accessType;
+    }
+
+    public List<String> getAllowedModules() {
+        return allowedModules;
+    }
+
+    public String getReasonMessage() {
+        switch (reason) {
+            case REFLECT_NOT_PUBLIC:
+                return "The project tries to reflectively invoke this method, but " + targetMember + " is " + accessType;
+            case REFLECT_ONLY_OPENS_TO:
+                return "The project tries to reflectively invoke this method, but " + packageName + " only opens to " + allowedModules;
+            case REFLECT_OPENED_NOT_PUBLIC:
+                return "The project tries to reflectively invoke this method, and although " + packageName + " is opened, but " + targetMember + " is not public";
+            case REFLECT_ONLY_EXPORTS_TO:
+                return "The project tries to reflectively invoke this method, but " + packageName + " only exports to " + allowedModules;
+            case REFLECT_EXPORTED_NOT_PUBLIC:
+                return "The project tries to reflectively invoke this method, and although " + packageName + " is exported, but " + targetMember + " is not public";
+            case REFLECT_EXPORTED_ONLY_EXPORTS_TO:
+                return "The project tries to reflectively invoke this method, but " + packageName + " is exported and only exports to " + allowedModules;
+            case REFLECT_NOT_EXIST:
+                return "The project tries to reflectively invoke this method, but " + targetMember + " does not exist in current JDK version";
+            case COMPILE_NOT_PUBLIC:
+                return "The project tries to invoke target method " + targetMember + " at compile time,  but " + targetClass + "." + targetMember + " is " + accessType;
+            case COMPILE_ONLY_OPENED:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + packageName + " is only opened";
+            case COMPILE_ONLY_OPENS_TO:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + packageName + " only opens to " + allowedModules;
+            case COMPILE_NOT_EXPORTED:
+                return "The project tries to invoke target method " + targetMember + " at compile time, because " + packageName + "is not exported, but the project tries to invoke this method during compile time";
+            case COMPILE_ONLY_EXPORTS_TO:
+                return "The project tries to invoke target method " + targetMember + " at compile time,  but " + packageName + " only exports to " + allowedModules;
+            case COMPILE_EXPORTED_NOT_PUBLIC:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but although " + packageName + " is exported, while " + targetClass + "." + targetMember + " is not public";
+            case COMPILE_OPENS_TO_NOT_PUBLIC:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + packageName + " only opens to " + allowedModules + " and the invoked method is not public";
+            case COMPILE_EXPORTED_OPENED_NOT_PUBLIC:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + packageName + " is only exported and opened, but the invoked method is not public";
+            case COMPILE_UNDECLARED:
+                return "The project tries to invoke target method " + retrieveMethod + " at compile time, but " + packageName + " is not declared opened or exported in the module-info.java file";
+            case COMPILE_CLASS_ONLY_OPENED:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + targetClass + " is only opened";
+            case COMPILE_CLASS_ONLY_OPENS_TO:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + targetClass + " only opens to " + allowedModules;
+            case COMPILE_CLASS_ONLY_EXPORTS_TO:
+                return "The project tries to invoke target method " + targetMember + " at compile time, but " + targetClass + " only exports to " + allowedModules;
+            default:
+                throw new IllegalStateException("Unknown abuse reason " + reason);
+        }
+    }
+
+    public void printTo(PrintWriter writer) {
+        writer.println("Detected abuse under module " + module);
+        if (reason.isReflective()) {
+            writer.println("Source method: " + sourceMethod + " from class: " + sourceClass);
+            writer.println("Involved Method: " + targetMember + " in target class: " + targetClass + " from package " + packageName);
+        } else {
+            writer.println("Involved Source Method: " + sourceMethod + "; Involved Target Method: " + targetMember + " in target class: " + targetClass + " from package " + packageName);
+        }
+        writer.println("Abuse Reason: " + getReasonMessage());
+        // The "exported but not public" compile-time report has never had a separator line
+        if (reason != AbuseReason.COMPILE_EXPORTED_NOT_PUBLIC) {
+            writer.println("-------------------------------------------------");
+        }
+    }
+}
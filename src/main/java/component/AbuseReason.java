@@ -0,0 +1,49 @@
+package component;
+
+/**
+ * Reason codes produced by {@link AbuseRuleTable}. The message of a reason is only formatted when a
+ * finding is written out, see {@link AbuseFinding#getReasonMessage()}.
+ */
+public enum AbuseReason {
+    REFLECT_NOT_PUBLIC(true),
+    REFLECT_ONLY_OPENS_TO(true),
+    REFLECT_OPENED_NOT_PUBLIC(true),
+    REFLECT_ONLY_EXPORTS_TO(true),
+    REFLECT_EXPORTED_NOT_PUBLIC(true),
+    REFLECT_EXPORTED_ONLY_EXPORTS_TO(true),
+    REFLECT_NOT_EXIST(true),
+
+    COMPILE_NOT_PUBLIC(false),
+    COMPILE_ONLY_OPENED(false),
+    COMPILE_ONLY_OPENS_TO(false),
+    COMPILE_NOT_EXPORTED(false),
+    COMPILE_ONLY_EXPORTS_TO(false),
+    COMPILE_EXPORTED_NOT_PUBLIC(false),
+    COMPILE_OPENS_TO_NOT_PUBLIC(false),
+    COMPILE_EXPORTED_OPENED_NOT_PUBLIC(false),
+    COMPILE_UNDECLARED(false),
+    COMPILE_CLASS_ONLY_OPENED(false),
+    COMPILE_CLASS_ONLY_OPENS_TO(false),
+    COMPILE_CLASS_ONLY_EXPORTS_TO(false);
+
+    private static final AbuseReason[] REASONS = values();
+
+    private final boolean reflective;
+
+    AbuseReason(boolean reflective) {
+        this.reflective = reflective;
+    }
+
+    public boolean isReflective() {
+        return reflective;
+    }
+
+    // Stable numeric code used in the decision tables, 0 is reserved for "no abuse"
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    public static AbuseReason fromCode(byte code) {
+        return code == 0 ? null : REASONS[code - 1];
+    }
+}
@@ -0,0 +1,161 @@
+package component;
+
+/**
+ * Decision tables for reflective and compile-time edges. Every fact the checkers branch on is packed
+ * into a small integer key, and both tables are compiled from {@link #decideReflective(int)} and
+ * {@link #decideCompileTime(int)} once, so classifying an edge is a single array lookup.
+ */
+public final class AbuseRuleTable {
+    private static final int RULE_MASK = (1 << AccessRuleKind.values().length) - 1;
+    public static final int FOUND = 1 << 5;
+    public static final int PACKAGE_KNOWN = 1 << 6;
+    public static final int SELF_ALLOWED = 1 << 7;
+    public static final int JDK_CLASS = 1 << 8;
+    private static final int VISIBILITY_SHIFT = 9;
+    private static final int KEY_SPACE = 1 << 12;
+
+    private static final byte[] REFLECTIVE = new byte[KEY_SPACE];
+    private static final byte[] COMPILE_TIME = new byte[KEY_SPACE];
+
+    static {
+        for (int key = 0; key < KEY_SPACE; key++) {
+            REFLECTIVE[key] = codeOf(decideReflective(key));
+            COMPILE_TIME[key] = codeOf(decideCompileTime(key));
+        }
+    }
+
+    private AbuseRuleTable() {
+    }
+
+    /**
+     * Packs the facts about one edge. {@code pkg} is the JDK package of the target, or null when the
+     * package is not declared in any module; {@code method} is the resolved target, or null when it was
+     * not found in the JDK model.
+     */
+    public static int key(JDKPackage pkg, JDKMethod method, boolean jdkClass) {
+        int key = 0;
+        if (pkg != null) {
+            key |= PACKAGE_KNOWN | pkg.getAccessRuleMask();
+            if (pkg.getAllowedModules().contains(pkg.getName())) {
+                key |= SELF_ALLOWED;
+            }
+        }
+        if (method != null) {
+            key |= FOUND | method.getVisibility() << VISIBILITY_SHIFT;
+        }
+        if (jdkClass) {
+            key |= JDK_CLASS;
+        }
+        return key;
+    }
+
+    public static AbuseReason classifyReflective(int key) {
+        return AbuseReason.fromCode(REFLECTIVE[key]);
+    }
+
+    public static AbuseReason classifyCompileTime(int key) {
+        return AbuseReason.fromCode(COMPILE_TIME[key]);
+    }
+
+    private static AbuseReason decideReflective(int key) {
+        int rules = key & RULE_MASK;
+        boolean single = Integer.bitCount(rules) == 1;
+        boolean self = has(key, SELF_ALLOWED);
+        boolean isPublic = visibility(key) == JDKMethod.PUBLIC;
+
+        if (!has(key, JDK_CLASS) || !has(key, PACKAGE_KNOWN)) {
+            return null;
+        }
+
+        if (has(key, FOUND)) {
+            if (single) {
+                if (rules == AccessRuleKind.EXPORTS.bit()) {
+                    return isPublic ? null : AbuseReason.REFLECT_NOT_PUBLIC;
+                } else if (rules == AccessRuleKind.OPENS_TO.bit()) {
+                    if (!self) {
+                        return AbuseReason.REFLECT_ONLY_OPENS_TO;
+                    }
+                    return isPublic ? null : AbuseReason.REFLECT_OPENED_NOT_PUBLIC;
+                } else if (rules == AccessRuleKind.EXPORTS_TO.bit()) {
+                    if (!self) {
+                        return AbuseReason.REFLECT_ONLY_EXPORTS_TO;
+                    }
+                    return isPublic ? null : AbuseReason.REFLECT_EXPORTED_NOT_PUBLIC;
+                }
+            } else if (hasRule(rules, AccessRuleKind.EXPORTS) && hasRule(rules, AccessRuleKind.OPENS_TO) && !self) {
+                return AbuseReason.REFLECT_EXPORTED_ONLY_EXPORTS_TO;
+            }
+            return null;
+        }
+
+        if (single) {
+            if (rules == AccessRuleKind.OPENS_TO.bit()) {
+                return AbuseReason.REFLECT_ONLY_OPENS_TO;
+            } else if (rules == AccessRuleKind.EXPORTS_TO.bit()) {
+                return AbuseReason.REFLECT_ONLY_EXPORTS_TO;
+            }
+            return AbuseReason.REFLECT_NOT_EXIST;
+        }
+        return null;
+    }
+
+    private static AbuseReason decideCompileTime(int key) {
+        int rules = key & RULE_MASK;
+        boolean single = Integer.bitCount(rules) == 1;
+        boolean self = has(key, SELF_ALLOWED);
+        int visibility = visibility(key);
+        boolean isPublic = visibility == JDKMethod.PUBLIC;
+
+        if (has(key, FOUND)) {
+            if (!has(key, PACKAGE_KNOWN)) {
+                return AbuseReason.COMPILE_UNDECLARED;
+            }
+            if (single) {
+                if (rules == AccessRuleKind.EXPORTS.bit()) {
+                    return isPublic || visibility == JDKMethod.DEFAULT ? null : AbuseReason.COMPILE_NOT_PUBLIC;
+                } else if (rules == AccessRuleKind.OPENS.bit()) {
+                    return AbuseReason.COMPILE_ONLY_OPENED;
+                } else if (rules == AccessRuleKind.OPENS_TO.bit()) {
+                    return self ? AbuseReason.COMPILE_NOT_EXPORTED : AbuseReason.COMPILE_ONLY_OPENS_TO;
+                } else if (rules == AccessRuleKind.EXPORTS_TO.bit()) {
+                    if (!self) {
+                        return AbuseReason.COMPILE_ONLY_EXPORTS_TO;
+                    }
+                    return isPublic ? null : AbuseReason.COMPILE_EXPORTED_NOT_PUBLIC;
+                }
+            } else if (hasRule(rules, AccessRuleKind.EXPORTS) && hasRule(rules, AccessRuleKind.OPENS_TO)) {
+                return !self && !isPublic ? AbuseReason.COMPILE_OPENS_TO_NOT_PUBLIC : null;
+            } else if (hasRule(rules, AccessRuleKind.EXPORTS) && hasRule(rules, AccessRuleKind.OPENS)) {
+                return isPublic ? null : AbuseReason.COMPILE_EXPORTED_OPENED_NOT_PUBLIC;
+            }
+            return null;
+        }
+
+        if (has(key, JDK_CLASS) && has(key, PACKAGE_KNOWN) && single) {
+            if (rules == AccessRuleKind.OPENS.bit()) {
+                return AbuseReason.COMPILE_CLASS_ONLY_OPENED;
+            } else if (rules == AccessRuleKind.OPENS_TO.bit()) {
+                return AbuseReason.COMPILE_CLASS_ONLY_OPENS_TO;
+            } else if (rules == AccessRuleKind.EXPORTS_TO.bit()) {
+                return AbuseReason.COMPILE_CLASS_ONLY_EXPORTS_TO;
+            }
+        }
+        return null;
+    }
+
+    private static boolean has(int key, int flag) {
+        return (key & flag) != 0;
+    }
+
+    private static boolean hasRule(int rules, AccessRuleKind kind) {
+        return (rules & kind.bit()) != 0;
+    }
+
+    private static int visibility(int key) {
+        return key >>> VISIBILITY_SHIFT;
+    }
+
+    private static byte codeOf(AbuseReason reason) {
+        return reason == null ? 0 : reason.code();
+    }
+}
@@ -0,0 +1,48 @@
+package component;
+
+import java.util.Set;
+
+/**
+ * Module directive kinds recorded for a JDK package, each mapped to one bit of
+ * {@link JDKPackage#getAccessRuleMask()}.
+ */
+public enum AccessRuleKind {
+    EXPORTS("exports"),
+    EXPORTS_TO("exports to"),
+    OPENS("opens"),
+    OPENS_TO("opens to"),
+    OTHER("");
+
+    private final String directive;
+    private final int bit;
+
+    AccessRuleKind(String directive) {
+        this.directive = directive;
+        this.bit = 1 << ordinal();
+    }
+
+    public String getDirective() {
+        return directive;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    public static AccessRuleKind fromDirective(String directive) {
+        for (AccessRuleKind kind : values()) {
+            if (kind != OTHER && kind.directive.equals(directive)) {
+                return kind;
+            }
+        }
+        return OTHER;
+    }
+
+    public static int maskOf(Set<String> directives) {
+        int mask = 0;
+        for (String directive : directives) {
+            mask |= fromDirective(directive).bit;
+        }
+        return mask;
+    }
+}
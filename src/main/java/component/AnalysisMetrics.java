@@ -0,0 +1,147 @@
+package component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and phase timers of the analysis of one jar, exposed through JMX and written as a dump at the
+ * end of a run. Metrics are off unless {@link #enable(String)} is called and again after {@link #disable()};
+ * while off every update is a single volatile read. The fixed counters of the hot paths are fields,
+ * counters per finding reason are created on first use.
+ */
+public class AnalysisMetrics implements AnalysisMetricsMXBean {
+    public static final String OBJECT_NAME = "bead:type=AnalysisMetrics";
+
+    private static volatile boolean enabled = false;
+    private static volatile String jarName;
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // Timer name -> number of recordings and total nanos
+    private static final Map<String, LongAdder[]> timers = new ConcurrentHashMap<>();
+
+    public static final Counter CLASSES_LOADED = new Counter("soot.classesLoaded");
+    public static final Counter BODIES_BUILT = new Counter("soot.bodiesBuilt");
+    public static final Counter CLASSES_SCANNED = new Counter("bytecode.classesScanned");
+    public static final Counter CALL_EDGES = new Counter("callGraph.edges");
+    public static final Counter REFLECTIVE_SITES = new Counter("reflection.sites");
+    public static final Counter CLASS_LOOKUPS = new Counter("model.classLookups");
+    public static final Counter METHOD_MATCHES = new Counter("model.methodMatches");
+    public static final Counter TYPE_CACHE_HITS = new Counter("model.typeCache.hits");
+    public static final Counter TYPE_CACHE_MISSES = new Counter("model.typeCache.misses");
+    public static final Counter PARAM_CACHE_HITS = new Counter("model.paramCache.hits");
+    public static final Counter PARAM_CACHE_MISSES = new Counter("model.paramCache.misses");
+    public static final Counter RESULT_CACHE_HITS = new Counter("resultCache.hits");
+    public static final Counter RESULT_CACHE_MISSES = new Counter("resultCache.misses");
+
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) {
+            counters.put(name, value);
+        }
+
+        public void increment() {
+            if (enabled) {
+                value.increment();
+            }
+        }
+
+        public void add(long amount) {
+            if (enabled) {
+                value.add(amount);
+            }
+        }
+    }
+
+    /** Starts collecting for the analysis of {@code jar}, from zero, and registers the MXBean once. */
+    public static synchronized void enable(String jar) {
+        counters.values().forEach(LongAdder::reset);
+        timers.clear();
+        jarName = jar;
+        enabled = true;
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new AnalysisMetrics(), name);
+            }
+        } catch (JMException e) {
+            System.out.println("Failed to register analysis metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /** Stops collecting; the values of the last run stay readable until the next {@link #enable(String)}. */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void countFinding(AbuseReason reason) {
+        if (enabled) {
+            counters.computeIfAbsent("findings." + reason.name(), k -> new LongAdder()).increment();
+        }
+    }
+
+    public static void recordTime(String timer, long nanos) {
+        if (enabled) {
+            LongAdder[] values = timers.computeIfAbsent(timer, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+            values[0].increment();
+            values[1].add(nanos);
+        }
+    }
+
+    /** Writes sorted "name=value" lines: counters, hit rates of the caches and timers in milliseconds. */
+    public static void write(Path file) throws IOException {
+        Map<String, String> lines = new TreeMap<>();
+        counters.forEach((name, value) -> lines.put(name, Long.toString(value.sum())));
+        counters.forEach((name, value) -> {
+            if (name.endsWith(".hits")) {
+                String cache = name.substring(0, name.length() - ".hits".length());
+                long hits = value.sum();
+                long lookups = hits + counters.get(cache + ".misses").sum();
+                lines.put(cache + ".hitRate", lookups == 0 ? "0" : String.format("%.4f", (double) hits / lookups));
+            }
+        });
+        timers.forEach((name, values) -> {
+            lines.put("timer." + name + ".count", Long.toString(values[0].sum()));
+            lines.put("timer." + name + ".ms", Long.toString(values[1].sum() / 1_000_000));
+        });
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("# Analysis metrics of " + jarName);
+            lines.forEach((name, value) -> writer.println(name + "=" + value));
+        }
+    }
+
+    @Override
+    public String getJar() {
+        return jarName;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, value) -> values.put(name, value.sum()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getTimerMillis() {
+        Map<String, Long> values = new TreeMap<>();
+        timers.forEach((name, timer) -> values.put(name, timer[1].sum() / 1_000_000));
+        return values;
+    }
+}
@@ -0,0 +1,14 @@
+package component;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link AnalysisMetrics}, registered as {@value AnalysisMetrics#OBJECT_NAME} while metrics are enabled.
+ */
+public interface AnalysisMetricsMXBean {
+    String getJar();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getTimerMillis();
+}
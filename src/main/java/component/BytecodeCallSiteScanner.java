@@ -0,0 +1,179 @@
+package component;
+
+import java.util.*;
+
+/**
+ * Finds the compile-time edges into the JDK in the bytecode of a class, the same edges the Jimple scan
+ * of CompileTimeAnalyzer records: invokestatic instructions resolving to a static JDK method, and the JDK
+ * static initializers triggered by invokestatic, getstatic/putstatic, new and reference array creation.
+ * Signatures are formatted like Soot's.
+ */
+public class BytecodeCallSiteScanner {
+    private static final int TABLESWITCH = 0xaa;
+    private static final int LOOKUPSWITCH = 0xab;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int NEW = 0xbb;
+    private static final int ANEWARRAY = 0xbd;
+    private static final int WIDE = 0xc4;
+    private static final int MULTIANEWARRAY = 0xc5;
+    private static final int IINC = 0x84;
+
+    // Length of each fixed-size instruction including its opcode, 0 for the switches and wide
+    private static final byte[] INSTRUCTION_LENGTHS = new byte[256];
+
+    static {
+        Arrays.fill(INSTRUCTION_LENGTHS, 0, 0xca, (byte) 1);
+        INSTRUCTION_LENGTHS[0x10] = 2;                          // bipush
+        INSTRUCTION_LENGTHS[0x11] = 3;                          // sipush
+        INSTRUCTION_LENGTHS[0x12] = 2;                          // ldc
+        INSTRUCTION_LENGTHS[0x13] = 3;                          // ldc_w
+        INSTRUCTION_LENGTHS[0x14] = 3;                          // ldc2_w
+        Arrays.fill(INSTRUCTION_LENGTHS, 0x15, 0x1a, (byte) 2); // loads with a local index
+        Arrays.fill(INSTRUCTION_LENGTHS, 0x36, 0x3b, (byte) 2); // stores with a local index
+        INSTRUCTION_LENGTHS[IINC] = 3;
+        Arrays.fill(INSTRUCTION_LENGTHS, 0x99, 0xa9, (byte) 3); // conditional branches, goto, jsr
+        INSTRUCTION_LENGTHS[0xa9] = 2;                          // ret
+        INSTRUCTION_LENGTHS[TABLESWITCH] = 0;
+        INSTRUCTION_LENGTHS[LOOKUPSWITCH] = 0;
+        Arrays.fill(INSTRUCTION_LENGTHS, 0xb2, 0xb9, (byte) 3); // field access, invokevirtual/special/static
+        INSTRUCTION_LENGTHS[0xb9] = 5;                          // invokeinterface
+        INSTRUCTION_LENGTHS[0xba] = 5;                          // invokedynamic
+        INSTRUCTION_LENGTHS[NEW] = 3;
+        INSTRUCTION_LENGTHS[0xbc] = 2;                          // newarray
+        INSTRUCTION_LENGTHS[ANEWARRAY] = 3;
+        INSTRUCTION_LENGTHS[0xc0] = 3;                          // checkcast
+        INSTRUCTION_LENGTHS[0xc1] = 3;                          // instanceof
+        INSTRUCTION_LENGTHS[WIDE] = 0;
+        INSTRUCTION_LENGTHS[MULTIANEWARRAY] = 4;
+        INSTRUCTION_LENGTHS[0xc6] = 3;                          // ifnull
+        INSTRUCTION_LENGTHS[0xc7] = 3;                          // ifnonnull
+        INSTRUCTION_LENGTHS[0xc8] = 5;                          // goto_w
+        INSTRUCTION_LENGTHS[0xc9] = 5;                          // jsr_w
+    }
+
+    private final ClassFileLookup lookup;
+
+    public BytecodeCallSiteScanner(ClassFileLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /** Source method signature -> JDK target signatures, one per instruction and target, in bytecode order. */
+    public Map<String, List<String>> scan(ClassFileInfo cls) {
+        Map<String, List<String>> edges = new LinkedHashMap<>();
+        if (isJDKClass(cls.getName())) {
+            return edges;
+        }
+
+        for (ClassFileInfo.MethodInfo method : cls.getMethods()) {
+            byte[] code = method.getCode();
+            if (code == null) {
+                continue;
+            }
+            String source = Utils.getSignature(cls.getName(), method.getName(), method.getDescriptor());
+
+            int pc = 0;
+            while (pc < code.length) {
+                int opcode = code[pc] & 0xFF;
+                Set<String> targets = null;
+                switch (opcode) {
+                    case INVOKESTATIC: {
+                        int ref = readU2(code, pc + 1);
+                        String owner = cls.getMemberOwner(ref);
+                        String name = cls.getMemberName(ref);
+                        String descriptor = cls.getMemberDescriptor(ref);
+                        targets = new LinkedHashSet<>();
+                        String declaringClass = lookup.resolveMethod(owner, name, descriptor);
+                        ClassFileLookup.ClassSummary declaring = declaringClass != null ? lookup.getClass(declaringClass) : null;
+                        // A phantom method of an unknown class takes the kind of the invoke
+                        if (declaringClass != null && (declaring == null || declaring.isStatic(name, descriptor))) {
+                            addTarget(targets, declaringClass, name, descriptor);
+                        }
+                        addClinits(targets, owner);
+                        break;
+                    }
+                    case GETSTATIC:
+                    case PUTSTATIC:
+                        targets = new LinkedHashSet<>();
+                        addClinits(targets, cls.getMemberOwner(readU2(code, pc + 1)));
+                        break;
+                    case NEW:
+                        targets = new LinkedHashSet<>();
+                        addClinits(targets, cls.getClassName(readU2(code, pc + 1)));
+                        break;
+                    case ANEWARRAY:
+                    case MULTIANEWARRAY: {
+                        // The element class of the created array, anewarray names its component type
+                        String type = cls.getClassName(readU2(code, pc + 1));
+                        String elementType = type.substring(type.lastIndexOf('[') + 1);
+                        if (opcode == ANEWARRAY && !type.startsWith("[")) {
+                            targets = new LinkedHashSet<>();
+                            addClinits(targets, type);
+                        } else if (elementType.startsWith("L")) {
+                            targets = new LinkedHashSet<>();
+                            addClinits(targets, elementType.substring(1, elementType.length() - 1));
+                        }
+                        break;
+                    }
+                    default:
+                        break;
+                }
+
+                if (targets != null) {
+                    for (String target : targets) {
+                        edges.computeIfAbsent(source, k -> new ArrayList<>()).add(target);
+                    }
+                }
+                pc += instructionLength(code, pc);
+            }
+        }
+        return edges;
+    }
+
+    private void addClinits(Set<String> targets, String className) {
+        for (String clinitClass : lookup.getClinitClasses(className)) {
+            addTarget(targets, clinitClass, "<clinit>", "()V");
+        }
+    }
+
+    private void addTarget(Set<String> targets, String declaringClass, String name, String descriptor) {
+        if (isJDKClass(declaringClass)) {
+            targets.add(Utils.getSignature(declaringClass, name, descriptor));
+        }
+    }
+
+    private static int instructionLength(byte[] code, int pc) {
+        int opcode = code[pc] & 0xFF;
+        int length = INSTRUCTION_LENGTHS[opcode];
+        if (length > 0) {
+            return length;
+        }
+
+        if (opcode == WIDE) {
+            return (code[pc + 1] & 0xFF) == IINC ? 6 : 4;
+        }
+        // Switch operands are 4-byte aligned relative to the start of the code
+        int operands = pc + 1 + ((4 - (pc + 1) % 4) % 4);
+        if (opcode == TABLESWITCH) {
+            int low = readS4(code, operands + 4);
+            int high = readS4(code, operands + 8);
+            return operands + 12 + (high - low + 1) * 4 - pc;
+        }
+        return operands + 8 + readS4(code, operands + 4) * 8 - pc;
+    }
+
+    private static int readU2(byte[] code, int index) {
+        return ((code[index] & 0xFF) << 8) | (code[index + 1] & 0xFF);
+    }
+
+    private static int readS4(byte[] code, int index) {
+        return (code[index] << 24) | ((code[index + 1] & 0xFF) << 16) | ((code[index + 2] & 0xFF) << 8) | (code[index + 3] & 0xFF);
+    }
+
+    private boolean isJDKClass(String className) {
+        return className.startsWith("java.") || className.startsWith("javax.") || className.startsWith("jdk.")
+                || className.startsWith("sun.") || className.startsWith("com.sun.") || className.startsWith("org.ietf.")
+                || className.startsWith("org.w3c.") || className.startsWith("org.xml.") || className.startsWith("netscape.");
+    }
+}
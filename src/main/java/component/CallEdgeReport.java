@@ -0,0 +1,55 @@
+package component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Compile_Time_Invoke report written while edges are found. Every edge is printed as it arrives and the
+ * distinct targets of each source method are handed on to the sink (the abuse check), so a method's
+ * edges need not be kept once it has been reported.
+ */
+public class CallEdgeReport implements AutoCloseable {
+    private final PrintWriter writer;
+    private final BiConsumer<String, Collection<String>> sink;
+    private int edgeCount = 0;
+
+    public CallEdgeReport(File file, BiConsumer<String, Collection<String>> sink) throws IOException {
+        this.writer = new PrintWriter(file, "UTF-8");
+        this.sink = sink;
+        writer.println("All Compile-time Calls invokes JDK:");
+    }
+
+    public void printEdge(String source, String target) {
+        writer.println("Found compile-time invoke: " + source + " => " + target);
+        edgeCount++;
+        AnalysisMetrics.CALL_EDGES.increment();
+    }
+
+    // Passes each source method with its distinct targets, in first-seen order, to the sink
+    public void passOn(Map<String, ? extends Collection<String>> edges) {
+        if (sink == null) {
+            return;
+        }
+        for (Map.Entry<String, ? extends Collection<String>> entry : edges.entrySet()) {
+            sink.accept(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+        }
+    }
+
+    public void addEdges(Map<String, List<String>> edges) {
+        for (Map.Entry<String, List<String>> entry : edges.entrySet()) {
+            for (String target : entry.getValue()) {
+                printEdge(entry.getKey(), target);
+            }
+        }
+        passOn(edges);
+    }
+
+    @Override
+    public void close() {
+        writer.println("\nTotal compile-time calls: " + edgeCount);
+        writer.close();
+    }
+}
@@ -0,0 +1,255 @@
+package component;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A class file read straight from its bytes: the constant pool, the class's own name, its superclass and
+ * interfaces, every class it references, and its methods with their bytecode. Names are returned as Java
+ * binary names ("a.b.C$D").
+ */
+public class ClassFileInfo {
+    public static final int CONSTANT_UTF8 = 1;
+    public static final int CONSTANT_INTEGER = 3;
+    public static final int CONSTANT_FLOAT = 4;
+    public static final int CONSTANT_LONG = 5;
+    public static final int CONSTANT_DOUBLE = 6;
+    public static final int CONSTANT_CLASS = 7;
+    public static final int CONSTANT_STRING = 8;
+    public static final int CONSTANT_FIELDREF = 9;
+    public static final int CONSTANT_METHODREF = 10;
+    public static final int CONSTANT_INTERFACE_METHODREF = 11;
+    public static final int CONSTANT_NAME_AND_TYPE = 12;
+    public static final int CONSTANT_METHOD_HANDLE = 15;
+    public static final int CONSTANT_METHOD_TYPE = 16;
+    public static final int CONSTANT_DYNAMIC = 17;
+    public static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    public static final int CONSTANT_MODULE = 19;
+    public static final int CONSTANT_PACKAGE = 20;
+
+    private final byte[] tags;
+    private final String[] utf8;
+    // First and second u2 operand of each entry, e.g. class_index and name_and_type_index of a Methodref
+    private final int[] firstOperand;
+    private final int[] secondOperand;
+    private final int accessFlags;
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces = new ArrayList<>();
+    private final List<MethodInfo> methods = new ArrayList<>();
+
+    public static class MethodInfo {
+        private final int accessFlags;
+        private final String name;
+        private final String descriptor;
+        private final byte[] code;
+
+        MethodInfo(int accessFlags, String name, String descriptor, byte[] code) {
+            this.accessFlags = accessFlags;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        // Bytecode of the Code attribute, null for abstract and native methods
+        public byte[] getCode() {
+            return code;
+        }
+    }
+
+    public ClassFileInfo(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int count = in.readUnsignedShort();
+        tags = new byte[count];
+        utf8 = new String[count];
+        firstOperand = new int[count];
+        secondOperand = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = (byte) tag;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    utf8[i] = in.readUTF();
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    firstOperand[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    firstOperand[i] = in.readUnsignedShort();
+                    secondOperand[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    firstOperand[i] = in.readUnsignedByte();
+                    secondOperand[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                    in.readInt();
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    in.readLong();
+                    i++;    // 8-byte constants take up two pool slots
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + " at index " + i);
+            }
+        }
+
+        accessFlags = in.readUnsignedShort();
+        name = getClassName(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        superName = superIndex == 0 ? null : getClassName(superIndex);
+
+        int interfaceCount = in.readUnsignedShort();
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces.add(getClassName(in.readUnsignedShort()));
+        }
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            int methodAccess = in.readUnsignedShort();
+            String methodName = utf8[in.readUnsignedShort()];
+            String methodDescriptor = utf8[in.readUnsignedShort()];
+            byte[] code = null;
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = utf8[in.readUnsignedShort()];
+                int length = in.readInt();
+                if (attributeName.equals("Code")) {
+                    in.skipBytes(4);    // max_stack, max_locals
+                    code = new byte[in.readInt()];
+                    in.readFully(code);
+                    in.skipBytes(length - 8 - code.length);
+                } else {
+                    in.skipBytes(length);
+                }
+            }
+            methods.add(new MethodInfo(methodAccess, methodName, methodDescriptor, code));
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    public List<MethodInfo> getMethods() {
+        return methods;
+    }
+
+    public int getConstantCount() {
+        return tags.length;
+    }
+
+    public int getTag(int index) {
+        return tags[index];
+    }
+
+    public String getUtf8(int index) {
+        return utf8[index];
+    }
+
+    public int getFirstOperand(int index) {
+        return firstOperand[index];
+    }
+
+    public int getSecondOperand(int index) {
+        return secondOperand[index];
+    }
+
+    // Binary name of a CONSTANT_Class entry; array classes keep their descriptor form
+    public String getClassName(int classIndex) {
+        return utf8[firstOperand[classIndex]].replace('/', '.');
+    }
+
+    // Owner class, name and descriptor of a Fieldref, Methodref or InterfaceMethodref entry
+    public String getMemberOwner(int refIndex) {
+        return getClassName(firstOperand[refIndex]);
+    }
+
+    public String getMemberName(int refIndex) {
+        return utf8[firstOperand[secondOperand[refIndex]]];
+    }
+
+    public String getMemberDescriptor(int refIndex) {
+        return utf8[secondOperand[secondOperand[refIndex]]];
+    }
+
+    /** Classes named by CONSTANT_Class entries other than this class, array types reduced to their element class. */
+    public Set<String> getReferencedClasses() {
+        Set<String> referenced = new LinkedHashSet<>();
+        for (int i = 1; i < tags.length; i++) {
+            if (tags[i] != CONSTANT_CLASS) {
+                continue;
+            }
+            String className = getClassName(i);
+            if (className.startsWith("[")) {
+                int elementStart = className.lastIndexOf('[') + 1;
+                if (className.charAt(elementStart) != 'L') {
+                    continue;
+                }
+                className = className.substring(elementStart + 1, className.length() - 1);
+            }
+            if (!className.equals(name)) {
+                referenced.add(className);
+            }
+        }
+        return referenced;
+    }
+}
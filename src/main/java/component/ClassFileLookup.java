@@ -0,0 +1,191 @@
+package component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Superclass, interfaces and declared methods of classes, read on demand from the class files of the
+ * running JDK (the jrt:/ file system) and of a jar, and kept for later lookups. Like Soot's class path,
+ * the JDK comes first. Classes found in neither are treated as unknown, the way Soot treats phantom
+ * classes. JDK classes are kept for the whole scan, jar and unknown classes only for the
+ * {@value #MAX_CACHED_JAR_CLASSES} most recently used ones, so memory does not grow with the jar. Safe for
+ * concurrent use.
+ */
+public class ClassFileLookup {
+    private static final ClassSummary UNKNOWN = new ClassSummary(null, Collections.emptyList(), Collections.emptyMap());
+    private static final int MAX_CACHED_JAR_CLASSES = 4096;
+
+    private final ZipFile jar;
+    private final FileSystem jrt;
+    // jrt:/ lists a package under every module with a directory of that name, e.g. java.lang under java.instrument
+    private final Map<String, List<String>> packageModules = new HashMap<>();
+    private final Map<String, ClassSummary> jdkClasses = new ConcurrentHashMap<>();
+    // Least recently used summaries of jar classes and of unknown classes
+    private final Map<String, ClassSummary> jarClasses = Collections.synchronizedMap(new LinkedHashMap<String, ClassSummary>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ClassSummary> eldest) {
+            return size() > MAX_CACHED_JAR_CLASSES;
+        }
+    });
+
+    public static class ClassSummary {
+        private final String superName;
+        private final List<String> interfaces;
+        // name + descriptor -> access flags
+        private final Map<String, Integer> methods;
+
+        ClassSummary(String superName, List<String> interfaces, Map<String, Integer> methods) {
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.methods = methods;
+        }
+
+        public String getSuperName() {
+            return superName;
+        }
+
+        public List<String> getInterfaces() {
+            return interfaces;
+        }
+
+        public boolean declaresMethod(String name, String descriptor) {
+            return methods.containsKey(name + descriptor);
+        }
+
+        public boolean isStatic(String name, String descriptor) {
+            Integer access = methods.get(name + descriptor);
+            return access != null && (access & 0x0008) != 0;
+        }
+    }
+
+    public ClassFileLookup(ZipFile jar) throws IOException {
+        this.jar = jar;
+        jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        try (DirectoryStream<Path> packages = Files.newDirectoryStream(jrt.getPath("/packages"))) {
+            for (Path pkg : packages) {
+                try (DirectoryStream<Path> modules = Files.newDirectoryStream(pkg)) {
+                    for (Path module : modules) {
+                        packageModules.computeIfAbsent(pkg.getFileName().toString(), k -> new ArrayList<>()).add(module.getFileName().toString());
+                    }
+                }
+            }
+        }
+    }
+
+    /** Summary of a class, or null if it is neither in the JDK nor in the jar. */
+    public ClassSummary getClass(String className) {
+        ClassSummary summary = jdkClasses.get(className);
+        if (summary == null) {
+            summary = jarClasses.get(className);
+        }
+        if (summary == null) {
+            summary = load(className);
+        }
+        return summary == UNKNOWN ? null : summary;
+    }
+
+    /**
+     * Class declaring the method a reference to owner.name+descriptor resolves to: the owner or its
+     * closest superclass declaring it, then its superinterfaces. An unknown class met on the way is
+     * returned as the declaring class, where Soot would create a phantom method. Null if it does not resolve.
+     */
+    public String resolveMethod(String owner, String name, String descriptor) {
+        Deque<String> pending = new ArrayDeque<>();
+        for (String className = owner; className != null; ) {
+            ClassSummary summary = getClass(className);
+            if (summary == null || summary.declaresMethod(name, descriptor)) {
+                return className;
+            }
+            pending.addAll(summary.getInterfaces());
+            className = summary.getSuperName();
+        }
+
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String interfaceName = pending.poll();
+            ClassSummary summary = getClass(interfaceName);
+            if (!visited.add(interfaceName) || summary == null) {
+                continue;
+            }
+            if (summary.declaresMethod(name, descriptor)) {
+                return interfaceName;
+            }
+            pending.addAll(summary.getInterfaces());
+        }
+        return null;
+    }
+
+    // Classes whose static initializer runs when className is initialized: it and its superclasses declaring one
+    public List<String> getClinitClasses(String className) {
+        List<String> clinitClasses = new ArrayList<>();
+        while (className != null) {
+            ClassSummary summary = getClass(className);
+            if (summary == null) {
+                break;
+            }
+            if (summary.declaresMethod("<clinit>", "()V")) {
+                clinitClasses.add(className);
+            }
+            className = summary.getSuperName();
+        }
+        return clinitClasses;
+    }
+
+    private ClassSummary load(String className) {
+        try {
+            byte[] bytes = readJDKClass(className);
+            if (bytes != null) {
+                ClassSummary summary = summarize(bytes);
+                jdkClasses.putIfAbsent(className, summary);
+                return summary;
+            }
+
+            ClassSummary summary = UNKNOWN;
+            ZipEntry entry = jar.getEntry(className.replace('.', '/') + ".class");
+            if (entry != null) {
+                try (InputStream in = jar.getInputStream(entry)) {
+                    summary = summarize(in.readAllBytes());
+                }
+            }
+            jarClasses.put(className, summary);
+            return summary;
+        } catch (IOException e) {
+            System.out.println("Failed to read class " + className + ": " + e.getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    private static ClassSummary summarize(byte[] bytes) throws IOException {
+        ClassFileInfo info = new ClassFileInfo(bytes);
+        Map<String, Integer> methods = new HashMap<>();
+        for (ClassFileInfo.MethodInfo method : info.getMethods()) {
+            methods.put(method.getName() + method.getDescriptor(), method.getAccessFlags());
+        }
+        return new ClassSummary(info.getSuperName(), info.getInterfaces(), methods);
+    }
+
+    private byte[] readJDKClass(String className) throws IOException {
+        int packageEnd = className.lastIndexOf('.');
+        List<String> modules = packageEnd < 0 ? null : packageModules.get(className.substring(0, packageEnd));
+        if (modules == null) {
+            return null;
+        }
+        for (String module : modules) {
+            Path classFile = jrt.getPath("/modules", module, className.replace('.', '/') + ".class");
+            if (Files.isRegularFile(classFile)) {
+                return Files.readAllBytes(classFile);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary variant of the findings output, stored column by column in blocks of up to
+ * {@value #BLOCK_ROWS} findings. Layout (DataOutput encoding, varints are unsigned LEB128):
+ * <pre>
+ * "BEADFND" version:byte jarName:UTF
+ * block*:   rows:int reason:byte[rows] (AbuseReason codes)
+ *           per string column: newValues:varint value:UTF[newValues] id:varint[rows]
+ * end:      0:int
+ * </pre>
+ * String columns are module, package, class, member, sourceMethod, sourceClass, accessType and
+ * allowedModules (comma separated). Each column has its own dictionary for the whole file: the values a
+ * block adds get the next ids, starting at 1, and id 0 stands for null.
+ */
+public class ColumnarFindingWriter implements FindingSink {
+    private static final String MAGIC = "BEADFND";
+    private static final byte FORMAT_VERSION = 1;
+    private static final int BLOCK_ROWS = 4096;
+    private static final int COLUMNS = 8;
+
+    private final DataOutputStream out;
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private final List<List<String>> newValues = new ArrayList<>();
+    private final byte[] reasons = new byte[BLOCK_ROWS];
+    private final int[][] ids = new int[COLUMNS][BLOCK_ROWS];
+    private int rows = 0;
+
+    public ColumnarFindingWriter(File file, String jarName) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        for (int column = 0; column < COLUMNS; column++) {
+            dictionaries.add(new HashMap<>());
+            newValues.add(new ArrayList<>());
+        }
+        out.writeBytes(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(jarName);
+    }
+
+    @Override
+    public void write(AbuseFinding finding) {
+        reasons[rows] = finding.getReason().code();
+        ids[0][rows] = idOf(0, finding.getModule());
+        ids[1][rows] = idOf(1, finding.getPackageName());
+        ids[2][rows] = idOf(2, finding.getTargetClassName());
+        ids[3][rows] = idOf(3, finding.getTargetMemberName());
+        ids[4][rows] = idOf(4, finding.getSourceMethod());
+        ids[5][rows] = idOf(5, finding.getSourceClass());
+        ids[6][rows] = idOf(6, finding.getAccessType());
+        ids[7][rows] = idOf(7, finding.getAllowedModules() != null ? String.join(",", finding.getAllowedModules()) : null);
+        rows++;
+
+        if (rows == BLOCK_ROWS) {
+            try {
+                flushBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private int idOf(int column, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Map<String, Integer> dictionary = dictionaries.get(column);
+        Integer id = dictionary.get(value);
+        if (id == null) {
+            id = dictionary.size() + 1;
+            dictionary.put(value, id);
+            newValues.get(column).add(value);
+        }
+        return id;
+    }
+
+    private void flushBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeInt(rows);
+        out.write(reasons, 0, rows);
+        for (int column = 0; column < COLUMNS; column++) {
+            List<String> values = newValues.get(column);
+            writeVarInt(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+            values.clear();
+            for (int row = 0; row < rows; row++) {
+                writeVarInt(ids[column][row]);
+            }
+        }
+        rows = 0;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            out.writeInt(0);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Read-only JDK model held in a few flat arrays instead of a tree of maps and objects per class and method.
+ * Every name is stored once in a {@link NameTable} and referred to by its id. Classes and methods are
+ * rows of parallel arrays, a package owning a range of class rows and a class a range of method rows. A
+ * method signature "name(a, b)" is kept as the id of its name and the ids of its parameters, its access
+ * type as a byte code. Lookups binary search the rows of a class or package sorted by name id.
+ * <p>
+ * {@link #getModules()} gives the model through the usual {@link JDKModule}, {@link JDKPackage},
+ * {@link JDKClass} and {@link JDKMethod} getters. Modules and packages are real objects, classes and
+ * methods are created when they are looked up and are not kept. Maps and lists returned by the views
+ * follow the iteration order of the model the compact one was built from.
+ */
+public class CompactJDKModel {
+    // Method rows whose name has no parameter list
+    private static final short NO_ARITY = -1;
+
+    private final NameTable names = new NameTable();
+    private final Map<String, JDKModule> modules = new HashMap<>();
+
+    private final int[] classNames;
+    // Methods of class c are the rows classFirstMethod[c] until classFirstMethod[c + 1]
+    private final int[] classFirstMethod;
+    // Per package, its class rows ordered by name id, then row
+    private final int[] classesByName;
+
+    private final int[] methodNames;
+    private final short[] methodArities;
+    private final byte[] methodAccess;
+    // Parameters of method m are params[methodFirstParam[m]] until params[methodFirstParam[m + 1]]
+    private final int[] methodFirstParam;
+    private final int[] params;
+    // Per class, its method rows ordered by name id, then row
+    private final int[] methodsByName;
+
+    private final List<String> accessTypes = new ArrayList<>();
+    private final byte[] accessVisibility = new byte[256];
+
+    private CompactJDKModel(int classCount, int methodCount, int paramCount) {
+        classNames = new int[classCount];
+        classFirstMethod = new int[classCount + 1];
+        classesByName = new int[classCount];
+        methodNames = new int[methodCount];
+        methodArities = new short[methodCount];
+        methodAccess = new byte[methodCount];
+        methodFirstParam = new int[methodCount + 1];
+        params = new int[paramCount];
+        methodsByName = new int[methodCount];
+    }
+
+    /** Copies {@code modules} into a compact model, reading all classes of lazily loaded packages. */
+    public static CompactJDKModel build(Map<String, JDKModule> modules) {
+        int classCount = 0;
+        int methodCount = 0;
+        int paramCount = 0;
+        for (JDKModule module : modules.values()) {
+            for (JDKPackage pkg : module.getPackages().values()) {
+                for (JDKClass cls : pkg.getClasses().values()) {
+                    classCount++;
+                    for (String signature : cls.getMethods().keySet()) {
+                        methodCount++;
+                        paramCount += splitSignature(signature).size() - 1;
+                    }
+                }
+            }
+        }
+
+        CompactJDKModel model = new CompactJDKModel(classCount, methodCount, paramCount);
+        int c = 0;
+        int m = 0;
+        int p = 0;
+        for (JDKModule module : modules.values()) {
+            JDKModule moduleView = new JDKModule(module.getName());
+            for (JDKPackage pkg : module.getPackages().values()) {
+                int firstClass = c;
+                for (JDKClass cls : pkg.getClasses().values()) {
+                    model.classNames[c] = model.names.intern(cls.getName());
+                    model.classFirstMethod[c] = m;
+                    for (JDKMethod method : cls.getMethods().values()) {
+                        List<String> parts = splitSignature(method.getName());
+                        model.methodNames[m] = model.names.intern(parts.get(0));
+                        model.methodArities[m] = parts.size() > 1 ? arity(method.getName()) : NO_ARITY;
+                        model.methodAccess[m] = model.accessCode(method.getAccessType());
+                        model.methodFirstParam[m] = p;
+                        for (int i = 1; i < parts.size(); i++) {
+                            model.params[p++] = model.names.intern(parts.get(i));
+                        }
+                        m++;
+                    }
+                    c++;
+                }
+                model.classFirstMethod[c] = m;
+                model.methodFirstParam[m] = p;
+                sortByName(model.classesByName, model.classNames, firstClass, c);
+                for (int i = firstClass; i < c; i++) {
+                    sortByName(model.methodsByName, model.methodNames, model.classFirstMethod[i], model.classFirstMethod[i + 1]);
+                }
+                moduleView.addPackage(model.new PackageView(pkg, firstClass, c));
+            }
+            model.modules.put(moduleView.getName(), moduleView);
+        }
+        model.names.trim();
+        return model;
+    }
+
+    public Map<String, JDKModule> getModules() {
+        return modules;
+    }
+
+    public int getClassCount() {
+        return classNames.length;
+    }
+
+    public int getMethodCount() {
+        return methodNames.length;
+    }
+
+    public int getNameCount() {
+        return names.size();
+    }
+
+    // "name(a, b)" -> [name, a, b], "name()" -> [name, ""], a name without parameter list -> [name]
+    private static List<String> splitSignature(String signature) {
+        int open = signature.indexOf('(');
+        if (open < 0 || signature.indexOf(')') != signature.length() - 1) {
+            return Collections.singletonList(signature);
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(signature.substring(0, open));
+        int start = open + 1;
+        for (int comma = signature.indexOf(", ", start); comma >= 0; comma = signature.indexOf(", ", start)) {
+            parts.add(signature.substring(start, comma));
+            start = comma + 2;
+        }
+        parts.add(signature.substring(start, signature.length() - 1));
+        return parts;
+    }
+
+    // Parameter count as JDKClass.getOverloads counts it
+    private static short arity(String signature) {
+        return (short) signature.substring(signature.indexOf('(') + 1, signature.indexOf(')')).split(", ").length;
+    }
+
+    private byte accessCode(String accessType) {
+        int code = accessTypes.indexOf(accessType);
+        if (code < 0) {
+            if (accessTypes.size() == accessVisibility.length) {
+                throw new IllegalStateException("Too many distinct access types for compact model: " + accessType);
+            }
+            code = accessTypes.size();
+            accessTypes.add(accessType);
+            accessVisibility[code] = JDKMethod.toVisibility(accessType);
+        }
+        return (byte) code;
+    }
+
+    // Fills order[from, to) with the rows from..to-1 ordered by their name id, then by row
+    private static void sortByName(int[] order, int[] rowNames, int from, int to) {
+        long[] keys = new long[to - from];
+        for (int row = from; row < to; row++) {
+            keys[row - from] = (long) rowNames[row] << 32 | row;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            order[from + i] = (int) keys[i];
+        }
+    }
+
+    // First position in order[from, to) whose row has the name id, or -1
+    private static int findFirst(int[] order, int[] rowNames, int from, int to, int nameId) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rowNames[order[mid]] < nameId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < to && rowNames[order[low]] == nameId ? low : -1;
+    }
+
+    private String signatureOf(int method) {
+        String name = names.get(methodNames[method]);
+        if (methodArities[method] == NO_ARITY) {
+            return name;
+        }
+        StringBuilder signature = new StringBuilder(name).append('(');
+        for (int i = methodFirstParam[method]; i < methodFirstParam[method + 1]; i++) {
+            if (i > methodFirstParam[method]) {
+                signature.append(", ");
+            }
+            signature.append(names.get(params[i]));
+        }
+        return signature.append(')').toString();
+    }
+
+    // Whether the parameter ids of the method spell signature[start, end) joined by ", "
+    private boolean paramsMatch(int method, String signature, int start, int end) {
+        int first = methodFirstParam[method];
+        int last = methodFirstParam[method + 1];
+        for (int i = first; i < last; i++) {
+            int comma = i < last - 1 ? signature.indexOf(", ", start) : end;
+            if (comma < 0 || comma > end || !names.matches(params[i], signature, start, comma)) {
+                return false;
+            }
+            start = comma + 2;
+        }
+        return start == end + 2;
+    }
+
+    private JDKMethod methodView(int method, String signature) {
+        int code = methodAccess[method] & 0xFF;
+        return new JDKMethod(signature, accessTypes.get(code), accessVisibility[code]);
+    }
+
+    private class PackageView extends JDKPackage {
+        private final int firstClass;
+        private final int classEnd;
+
+        PackageView(JDKPackage pkg, int firstClass, int classEnd) {
+            super(pkg.getName());
+            for (String rule : pkg.getAccessRules()) {
+                addAccessRule(rule);
+            }
+            for (String allowedModule : pkg.getAllowedModules()) {
+                addAllowedModule(allowedModule);
+            }
+            this.firstClass = firstClass;
+            this.classEnd = classEnd;
+        }
+
+        @Override
+        public Map<String, JDKClass> getClasses() {
+            Map<String, JDKClass> classes = new LinkedHashMap<>();
+            for (int c = firstClass; c < classEnd; c++) {
+                String name = names.get(classNames[c]);
+                classes.put(name, new ClassView(name, c));
+            }
+            return classes;
+        }
+
+        @Override
+        public JDKClass getClass(String name) {
+            int nameId = names.find(name, 0, name.length());
+            int position = nameId < 0 ? -1 : findFirst(classesByName, classNames, firstClass, classEnd, nameId);
+            return position < 0 ? null : new ClassView(name, classesByName[position]);
+        }
+    }
+
+    private class ClassView extends JDKClass {
+        private final int row;
+
+        ClassView(String name, int row) {
+            super(name);
+            this.row = row;
+        }
+
+        @Override
+        public void addMethod(JDKMethod method) {
+            throw new UnsupportedOperationException("Compact JDK model is read-only");
+        }
+
+        @Override
+        public Map<String, JDKMethod> getMethods() {
+            Map<String, JDKMethod> methods = new LinkedHashMap<>();
+            for (int m = classFirstMethod[row]; m < classFirstMethod[row + 1]; m++) {
+                String signature = signatureOf(m);
+                methods.put(signature, methodView(m, signature));
+            }
+            return methods;
+        }
+
+        @Override
+        public JDKMethod getMethod(String signature) {
+            int open = signature.indexOf('(');
+            boolean hasParams = open >= 0 && signature.indexOf(')') == signature.length() - 1;
+            int nameEnd = hasParams ? open : signature.length();
+            int nameId = names.find(signature, 0, nameEnd);
+            int from = classFirstMethod[row];
+            int to = classFirstMethod[row + 1];
+            int position = nameId < 0 ? -1 : findFirst(methodsByName, methodNames, from, to, nameId);
+            for (; position >= 0 && position < to && methodNames[methodsByName[position]] == nameId; position++) {
+                int m = methodsByName[position];
+                if (hasParams ? methodArities[m] != NO_ARITY && paramsMatch(m, signature, open + 1, signature.length() - 1)
+                        : methodArities[m] == NO_ARITY) {
+                    return methodView(m, signature);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public List<JDKMethod> getOverloads(String name, int arity) {
+            int nameId = names.find(name, 0, name.length());
+            int from = classFirstMethod[row];
+            int to = classFirstMethod[row + 1];
+            int position = nameId < 0 ? -1 : findFirst(methodsByName, methodNames, from, to, nameId);
+            List<JDKMethod> overloads = new ArrayList<>();
+            for (; position >= 0 && position < to && methodNames[methodsByName[position]] == nameId; position++) {
+                int m = methodsByName[position];
+                if (methodArities[m] == arity) {
+                    overloads.add(methodView(m, signatureOf(m)));
+                }
+            }
+            return overloads;
+        }
+    }
+
+    /**
+     * Distinct strings stored back to back as UTF-8 in one byte array and numbered in the order they were
+     * added. Ids are found through an open-addressing table keyed by String.hashCode(), so a name can be
+     * looked up from a range of a larger string without cutting it out first.
+     */
+    static class NameTable {
+        private byte[] bytes = new byte[1 << 16];
+        private int byteCount;
+        private int[] offsets = new int[1 << 10];
+        private int[] hashes = new int[1 << 10];
+        private int count;
+        // Slot -> id + 1, 0 for an empty slot
+        private int[] slots = new int[1 << 11];
+
+        int size() {
+            return count;
+        }
+
+        int intern(String name) {
+            int id = find(name, 0, name.length());
+            if (id >= 0) {
+                return id;
+            }
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            if (byteCount + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + encoded.length));
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            }
+            System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+            offsets[count] = byteCount;
+            hashes[count] = name.hashCode();
+            byteCount += encoded.length;
+            offsets[count + 1] = byteCount;
+            count++;
+            if (count * 2 > slots.length) {
+                rehash(slots.length * 2);
+            } else {
+                insert(count - 1);
+            }
+            return count - 1;
+        }
+
+        String get(int id) {
+            return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+        }
+
+        // Id of the string s[start, end), or -1
+        int find(String s, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + s.charAt(i);
+            }
+            int mask = slots.length - 1;
+            for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (hashes[id] == hash && matches(id, s, start, end)) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        // Whether the name with the id equals s[start, end)
+        boolean matches(int id, String s, int start, int end) {
+            int offset = offsets[id];
+            int length = offsets[id + 1] - offset;
+            if (length != end - start) {
+                // Shorter or longer in UTF-8 than in chars only when not ASCII
+                return length > end - start && get(id).equals(s.substring(start, end));
+            }
+            for (int i = 0; i < length; i++) {
+                char ch = s.charAt(start + i);
+                if (ch >= 0x80) {
+                    return get(id).equals(s.substring(start, end));
+                }
+                if (bytes[offset + i] != ch) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Drops the room left for further names
+        void trim() {
+            bytes = Arrays.copyOf(bytes, byteCount);
+            offsets = Arrays.copyOf(offsets, count + 1);
+            hashes = Arrays.copyOf(hashes, count);
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            for (int id = 0; id < count; id++) {
+                insert(id);
+            }
+        }
+
+        private void insert(int id) {
+            int mask = slots.length - 1;
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package component;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses findings that only differ in their source method into one group per (module, package,
+ * target member, reason). A group counts its findings and keeps the source methods of the first few as
+ * samples, so memory and report size grow with the number of distinct abuses, not with the call sites.
+ */
+public class FindingAggregator {
+    private final int sampleSize;
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private int findingCount = 0;
+
+    public FindingAggregator(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public void add(AbuseFinding finding) {
+        String key = finding.getModule() + '|' + finding.getPackageName() + '|' + finding.getTargetClassName() + '|'
+                + finding.getTargetMemberName() + '|' + finding.getReason().name();
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(finding);
+            groups.put(key, group);
+        }
+        group.count++;
+        if (group.samples.size() < sampleSize) {
+            group.samples.add(finding.getSourceMethod());
+        }
+        findingCount++;
+    }
+
+    public int getFindingCount() {
+        return findingCount;
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    // Groups in the order their first finding was added
+    public void printTo(PrintWriter writer) {
+        for (Group group : groups.values()) {
+            AbuseFinding finding = group.first;
+            writer.println("Detected abuse under module " + finding.getModule());
+            writer.println("Involved Target: " + finding.getTargetMemberName() + " in target class: " + finding.getTargetClassName() + " from package " + finding.getPackageName());
+            writer.println("Abuse Reason: " + finding.getReasonMessage());
+            writer.println("Occurrences: " + group.count + (group.count > group.samples.size() ? ", first " + group.samples.size() + " source methods:" : ", source methods:"));
+            for (String sample : group.samples) {
+                writer.println("\t" + sample);
+            }
+            writer.println("-------------------------------------------------");
+        }
+    }
+
+    private static class Group {
+        private final AbuseFinding first;
+        private final List<String> samples = new ArrayList<>();
+        private int count = 0;
+
+        private Group(AbuseFinding first) {
+            this.first = first;
+        }
+    }
+}
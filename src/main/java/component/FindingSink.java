@@ -0,0 +1,14 @@
+package component;
+
+import java.io.IOException;
+
+/**
+ * Structured destination of detected abuses, written next to the text reports. Findings arrive one at a
+ * time while the analysis runs, so implementations buffer their output and keep no findings around.
+ */
+public interface FindingSink extends AutoCloseable {
+    void write(AbuseFinding finding);
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,216 @@
+package component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Per-class analysis results of an earlier run of a jar, used to re-analyze only the classes that changed
+ * since. For every class it keeps the class file hash, the reflective result of each of its methods, and
+ * the methods that were reachable in the compile-time call graph together with their JDK call edges.
+ */
+public class IncrementalState {
+    private static final int MAGIC = 0x42454149;
+    private static final int FORMAT_VERSION = 2;
+
+    private final String callGraphEngine;
+    private final Map<String, ClassState> classes = new LinkedHashMap<>();
+
+    public IncrementalState(String callGraphEngine) {
+        this.callGraphEngine = callGraphEngine;
+    }
+
+    public static class ClassState {
+        private final String hash;
+        private final Map<String, ReflectiveMethodResult> reflectiveResults = new LinkedHashMap<>();
+        private final Set<String> reachableMethods = new LinkedHashSet<>();
+        // Source method signature -> target method signatures, one per call edge
+        private final Map<String, List<String>> edges = new LinkedHashMap<>();
+
+        public ClassState(String hash) {
+            this.hash = hash;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public Map<String, ReflectiveMethodResult> getReflectiveResults() {
+            return reflectiveResults;
+        }
+
+        public Set<String> getReachableMethods() {
+            return reachableMethods;
+        }
+
+        public Map<String, List<String>> getEdges() {
+            return edges;
+        }
+    }
+
+    public String getCallGraphEngine() {
+        return callGraphEngine;
+    }
+
+    public ClassState getClassState(String className) {
+        return classes.get(className);
+    }
+
+    public ClassState getOrCreateClassState(String className, String hash) {
+        return classes.computeIfAbsent(className, k -> new ClassState(hash));
+    }
+
+    public boolean isEmpty() {
+        return classes.isEmpty();
+    }
+
+    /**
+     * Classes whose results must be recomputed: classes that are new or changed, their subclasses in the
+     * jar (their static initializer chain changed), and every class referencing one of those or a class
+     * that was removed. Results of all other classes can be taken over from this state.
+     */
+    public Set<String> findClassesToReanalyze(JarClassIndex jar) {
+        Set<String> changed = new HashSet<>();
+        for (String className : jar.getClassNames()) {
+            ClassState previous = classes.get(className);
+            if (previous == null || !previous.hash.equals(jar.getHash(className))) {
+                changed.add(className);
+            }
+        }
+        for (String className : jar.getClassNames()) {
+            for (String superName = jar.getSuperName(className); superName != null && jar.contains(superName); superName = jar.getSuperName(superName)) {
+                if (changed.contains(superName)) {
+                    changed.add(className);
+                    break;
+                }
+            }
+        }
+        for (String className : classes.keySet()) {
+            if (!jar.contains(className)) {
+                changed.add(className);
+            }
+        }
+
+        Set<String> reanalyzed = new LinkedHashSet<>();
+        for (String className : jar.getClassNames()) {
+            if (changed.contains(className) || !Collections.disjoint(jar.getReferences(className), changed)) {
+                reanalyzed.add(className);
+            }
+        }
+        return reanalyzed;
+    }
+
+    public static IncrementalState load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return new IncrementalState(null);
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                System.out.println("Ignoring incremental state of an unknown format: " + file);
+                return new IncrementalState(null);
+            }
+            IncrementalState state = new IncrementalState(in.readUTF());
+
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                ClassState cls = state.getOrCreateClassState(in.readUTF(), in.readUTF());
+
+                int resultCount = in.readInt();
+                for (int j = 0; j < resultCount; j++) {
+                    String signature = in.readUTF();
+                    String text = readLongString(in);
+                    int[] counts = new int[4];
+                    for (int k = 0; k < counts.length; k++) {
+                        counts[k] = in.readInt();
+                    }
+                    Map<String, Integer> fullMethodCounts = new LinkedHashMap<>();
+                    int fullCount = in.readInt();
+                    for (int k = 0; k < fullCount; k++) {
+                        fullMethodCounts.put(in.readUTF(), in.readInt());
+                    }
+                    List<String> partMethodNames = readStrings(in);
+                    cls.reflectiveResults.put(signature, ReflectiveMethodResult.restore(text, counts, fullMethodCounts, partMethodNames));
+                }
+
+                cls.reachableMethods.addAll(readStrings(in));
+                int edgeSourceCount = in.readInt();
+                for (int j = 0; j < edgeSourceCount; j++) {
+                    cls.edges.put(in.readUTF(), readStrings(in));
+                }
+            }
+            return state;
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path staging = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(callGraphEngine);
+            out.writeInt(classes.size());
+            for (Map.Entry<String, ClassState> entry : classes.entrySet()) {
+                ClassState cls = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(cls.hash);
+
+                out.writeInt(cls.reflectiveResults.size());
+                for (Map.Entry<String, ReflectiveMethodResult> result : cls.reflectiveResults.entrySet()) {
+                    out.writeUTF(result.getKey());
+                    writeLongString(out, result.getValue().getText());
+                    for (int count : result.getValue().getCounts()) {
+                        out.writeInt(count);
+                    }
+                    out.writeInt(result.getValue().getFullMethodCounts().size());
+                    for (Map.Entry<String, Integer> full : result.getValue().getFullMethodCounts().entrySet()) {
+                        out.writeUTF(full.getKey());
+                        out.writeInt(full.getValue());
+                    }
+                    writeStrings(out, result.getValue().getPartMethodNames());
+                }
+
+                writeStrings(out, cls.reachableMethods);
+                out.writeInt(cls.edges.size());
+                for (Map.Entry<String, List<String>> edge : cls.edges.entrySet()) {
+                    out.writeUTF(edge.getKey());
+                    writeStrings(out, edge.getValue());
+                }
+            }
+        }
+        Files.move(staging, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+
+    // Report text can exceed the 64K limit of writeUTF
+    private static String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLongString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
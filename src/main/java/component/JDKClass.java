@@ -1,10 +1,10 @@
 package component;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class JDKClass {
     private String name;
     private Map<String, JDKMethod> methods = new HashMap<>();
+    private Map<String, Map<Integer, List<JDKMethod>>> overloads;
 
     public JDKClass(String name) {
         this.name = name;
@@ -12,6 +12,7 @@ public class JDKClass {
 
     public void addMethod(JDKMethod method) {
         methods.put(method.getName(), method);
+        overloads = null;
     }
 
     public String getName() {
@@ -25,4 +26,25 @@ public class JDKClass {
     public JDKMethod getMethod(String name) {
         return methods.get(name);
     }
+
+    /**
+     * Returns the methods with the given name whose stored signature splits into {@code arity} parameters,
+     * in the iteration order of {@link #getMethods()}.
+     */
+    public List<JDKMethod> getOverloads(String name, int arity) {
+        Map<String, Map<Integer, List<JDKMethod>>> index = overloads;
+        if (index == null) {
+            index = new HashMap<>();
+            for (JDKMethod m : methods.values()) {
+                String signature = m.getName();
+                String methodName = signature.substring(0, signature.indexOf('('));
+                int methodArity = signature.substring(signature.indexOf('(') + 1, signature.indexOf(')')).split(", ").length;
+                index.computeIfAbsent(methodName, k -> new HashMap<>())
+                        .computeIfAbsent(methodArity, k -> new ArrayList<>())
+                        .add(m);
+            }
+            overloads = index;
+        }
+        return index.getOrDefault(name, Collections.emptyMap()).getOrDefault(arity, Collections.emptyList());
+    }
 }
@@ -1,12 +1,28 @@
 package component;
 
 public class JDKMethod {
+    public static final byte PUBLIC = 0;
+    public static final byte PROTECTED = 1;
+    public static final byte PACKAGE_PRIVATE = 2;
+    public static final byte PRIVATE = 3;
+    public static final byte DEFAULT = 4;
+    public static final byte OTHER = 5;
+
     private String name;
     private String accessType;
+    private byte visibility;
 
     public JDKMethod(String name, String accessType) {
         this.name = name;
         this.accessType = accessType;
+        this.visibility = toVisibility(accessType);
+    }
+
+    // For CompactJDKModel, which keeps the visibility of every access type it has seen
+    JDKMethod(String name, String accessType, byte visibility) {
+        this.name = name;
+        this.accessType = accessType;
+        this.visibility = visibility;
     }
 
     public String getName() {
@@ -16,4 +32,26 @@ public class JDKMethod {
     public String getAccessType() {
         return accessType;
     }
+
+    // Byte code of getAccessType(), one of the visibility constants above
+    public byte getVisibility() {
+        return visibility;
+    }
+
+    public static byte toVisibility(String accessType) {
+        switch (accessType) {
+            case "public":
+                return PUBLIC;
+            case "protected":
+                return PROTECTED;
+            case "package-private":
+                return PACKAGE_PRIVATE;
+            case "private":
+                return PRIVATE;
+            case "default":
+                return DEFAULT;
+            default:
+                return OTHER;
+        }
+    }
 }
@@ -0,0 +1,297 @@
+package component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compiled, memory-mapped form of the JDK model built from ModuleInfo.txt and PkgInfo.txt.
+ * All names live in one interned string table, modules/packages/classes/methods are flat
+ * fixed-size record tables that refer to it by index, and access rules and access types are
+ * stored as bytes. Modules and packages are materialized on load, the classes and methods of a
+ * package only when the package is first asked for them.
+ */
+public class JDKModelSnapshot {
+    private static final int MAGIC = 0x42454144;    // "BEAD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 * 15;
+    private static final int MODULE_RECORD_SIZE = 12;
+    private static final int PACKAGE_RECORD_SIZE = 21;
+    private static final int CLASS_RECORD_SIZE = 12;
+    private static final int METHOD_RECORD_SIZE = 5;
+    private static final List<String> ACCESS_RULES = Arrays.asList("exports", "exports to", "opens", "opens to");
+
+    public static void write(Map<String, JDKModule> modules, String path) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Integer> accessTypes = new LinkedHashMap<>();
+
+        ByteArrayOutputStream moduleTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream packageTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream allowedTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream classTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream methodTable = new ByteArrayOutputStream();
+        DataOutputStream moduleOut = new DataOutputStream(moduleTable);
+        DataOutputStream packageOut = new DataOutputStream(packageTable);
+        DataOutputStream allowedOut = new DataOutputStream(allowedTable);
+        DataOutputStream classOut = new DataOutputStream(classTable);
+        DataOutputStream methodOut = new DataOutputStream(methodTable);
+
+        int packageCount = 0, allowedCount = 0, classCount = 0, methodCount = 0;
+        for (JDKModule module : modules.values()) {
+            moduleOut.writeInt(intern(strings, module.getName()));
+            moduleOut.writeInt(packageCount);
+            moduleOut.writeInt(module.getPackages().size());
+
+            for (JDKPackage pkg : module.getPackages().values()) {
+                packageOut.writeInt(intern(strings, pkg.getName()));
+                packageOut.writeByte(encodeAccessRules(pkg.getAccessRules()));
+                packageOut.writeInt(allowedCount);
+                packageOut.writeInt(pkg.getAllowedModules().size());
+                packageOut.writeInt(classCount);
+                packageOut.writeInt(pkg.getClasses().size());
+                packageCount++;
+
+                for (String allowedModule : pkg.getAllowedModules()) {
+                    allowedOut.writeInt(intern(strings, allowedModule));
+                    allowedCount++;
+                }
+
+                for (JDKClass cls : pkg.getClasses().values()) {
+                    classOut.writeInt(intern(strings, cls.getName()));
+                    classOut.writeInt(methodCount);
+                    classOut.writeInt(cls.getMethods().size());
+                    classCount++;
+
+                    for (JDKMethod method : cls.getMethods().values()) {
+                        Integer accessCode = accessTypes.get(method.getAccessType());
+                        if (accessCode == null) {
+                            accessCode = accessTypes.size();
+                            accessTypes.put(method.getAccessType(), accessCode);
+                            intern(strings, method.getAccessType());
+                        }
+                        if (accessCode > Byte.MAX_VALUE) {
+                            throw new IOException("Too many distinct access types for snapshot: " + method.getAccessType());
+                        }
+                        methodOut.writeInt(intern(strings, method.getName()));
+                        methodOut.writeByte(accessCode);
+                        methodCount++;
+                    }
+                }
+            }
+        }
+
+        ByteArrayOutputStream stringOffsetTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        DataOutputStream stringOffsets = new DataOutputStream(stringOffsetTable);
+        for (String s : strings.keySet()) {
+            stringOffsets.writeInt(stringData.size());
+            stringData.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        stringOffsets.writeInt(stringData.size());
+
+        ByteArrayOutputStream accessTypeTable = new ByteArrayOutputStream();
+        DataOutputStream accessTypeOut = new DataOutputStream(accessTypeTable);
+        for (String accessType : accessTypes.keySet()) {
+            accessTypeOut.writeInt(strings.get(accessType));
+        }
+
+        // Written next to the snapshot and moved into place: a killed run leaves no half-written snapshot behind,
+        // and a process still mapping the old one keeps reading the old file
+        Path target = Paths.get(path).toAbsolutePath();
+        Path staging = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+            int offset = HEADER_SIZE;
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(strings.size());
+            out.writeInt(accessTypes.size());
+            out.writeInt(modules.size());
+            out.writeInt(packageCount);
+            out.writeInt(classCount);
+            out.writeInt(methodCount);
+            out.writeInt(offset);                                   // string offsets
+            out.writeInt(offset += stringOffsetTable.size());       // string data
+            out.writeInt(offset += stringData.size());              // access types
+            out.writeInt(offset += accessTypeTable.size());         // modules
+            out.writeInt(offset += moduleTable.size());             // packages
+            out.writeInt(offset += packageTable.size());            // allowed modules
+            out.writeInt(offset + allowedTable.size());             // classes, followed by methods
+
+            stringOffsetTable.writeTo(out);
+            stringData.writeTo(out);
+            accessTypeTable.writeTo(out);
+            moduleTable.writeTo(out);
+            packageTable.writeTo(out);
+            allowedTable.writeTo(out);
+            classTable.writeTo(out);
+            methodTable.writeTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(staging);
+            throw e;
+        }
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Map<String, JDKModule> load(String path) throws IOException {
+        MappedByteBuffer buffer;
+        long size;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            size = channel.size();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a JDK model snapshot of format version " + FORMAT_VERSION + ": " + path);
+        }
+        if (!hasConsistentLayout(buffer, size)) {
+            throw new IOException("Truncated or corrupt JDK model snapshot: " + path);
+        }
+
+        SnapshotReader reader = new SnapshotReader(buffer);
+        Map<String, JDKModule> modules = new HashMap<>();
+        for (int moduleIndex = 0; moduleIndex < reader.moduleCount; moduleIndex++) {
+            int moduleRecord = reader.modulePos + moduleIndex * MODULE_RECORD_SIZE;
+            JDKModule module = new JDKModule(reader.string(buffer.getInt(moduleRecord)));
+            int firstPackage = buffer.getInt(moduleRecord + 4);
+            int packageCount = buffer.getInt(moduleRecord + 8);
+
+            for (int packageIndex = firstPackage; packageIndex < firstPackage + packageCount; packageIndex++) {
+                module.addPackage(reader.readPackage(packageIndex));
+            }
+            modules.put(module.getName(), module);
+        }
+        return modules;
+    }
+
+    // Whether the table offsets of the header follow from its counts and the tables end exactly at the end of the file
+    private static boolean hasConsistentLayout(ByteBuffer buffer, long size) {
+        long stringCount = buffer.getInt(8) & 0xFFFFFFFFL;
+        long accessTypeCount = buffer.getInt(12) & 0xFFFFFFFFL;
+        long moduleCount = buffer.getInt(16) & 0xFFFFFFFFL;
+        long packageCount = buffer.getInt(20) & 0xFFFFFFFFL;
+        long classCount = buffer.getInt(24) & 0xFFFFFFFFL;
+        long methodCount = buffer.getInt(28) & 0xFFFFFFFFL;
+        long stringOffsetPos = buffer.getInt(32);
+        long stringDataPos = buffer.getInt(36);
+        long accessTypePos = buffer.getInt(40);
+        long modulePos = buffer.getInt(44);
+        long packagePos = buffer.getInt(48);
+        long allowedPos = buffer.getInt(52);
+        long classPos = buffer.getInt(56);
+
+        if (stringOffsetPos != HEADER_SIZE || stringDataPos != stringOffsetPos + (stringCount + 1) * 4 || stringDataPos > size - 4) {
+            return false;
+        }
+        long stringDataSize = buffer.getInt((int) stringDataPos - 4);
+        return stringDataSize >= 0
+                && accessTypePos == stringDataPos + stringDataSize
+                && modulePos == accessTypePos + accessTypeCount * 4
+                && packagePos == modulePos + moduleCount * MODULE_RECORD_SIZE
+                && allowedPos == packagePos + packageCount * PACKAGE_RECORD_SIZE
+                && classPos >= allowedPos && (classPos - allowedPos) % 4 == 0
+                && size == classPos + classCount * CLASS_RECORD_SIZE + methodCount * METHOD_RECORD_SIZE;
+    }
+
+    private static int intern(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    private static int encodeAccessRules(Set<String> accessRules) throws IOException {
+        int mask = 0;
+        for (String rule : accessRules) {
+            int bit = ACCESS_RULES.indexOf(rule);
+            if (bit < 0) {
+                throw new IOException("Unknown access rule for snapshot: " + rule);
+            }
+            mask |= 1 << bit;
+        }
+        return mask;
+    }
+
+    private static class SnapshotReader {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final String[] accessTypes;
+        private final int moduleCount;
+        private final int stringOffsetPos, stringDataPos, modulePos, packagePos, allowedPos, classPos, methodPos;
+
+        SnapshotReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.strings = new String[buffer.getInt(8)];
+            this.accessTypes = new String[buffer.getInt(12)];
+            this.moduleCount = buffer.getInt(16);
+            int classCount = buffer.getInt(24);
+            this.stringOffsetPos = buffer.getInt(32);
+            this.stringDataPos = buffer.getInt(36);
+            int accessTypePos = buffer.getInt(40);
+            this.modulePos = buffer.getInt(44);
+            this.packagePos = buffer.getInt(48);
+            this.allowedPos = buffer.getInt(52);
+            this.classPos = buffer.getInt(56);
+            this.methodPos = classPos + classCount * CLASS_RECORD_SIZE;
+
+            for (int i = 0; i < accessTypes.length; i++) {
+                accessTypes[i] = string(buffer.getInt(accessTypePos + i * 4));
+            }
+        }
+
+        private String string(int id) {
+            String s = strings[id];
+            if (s == null) {
+                int start = buffer.getInt(stringOffsetPos + id * 4);
+                int end = buffer.getInt(stringOffsetPos + id * 4 + 4);
+                byte[] bytes = new byte[end - start];
+                buffer.get(stringDataPos + start, bytes);
+                s = new String(bytes, StandardCharsets.UTF_8);
+                strings[id] = s;
+            }
+            return s;
+        }
+
+        private JDKPackage readPackage(int packageIndex) {
+            int packageRecord = packagePos + packageIndex * PACKAGE_RECORD_SIZE;
+            JDKPackage pkg = new JDKPackage(string(buffer.getInt(packageRecord)));
+
+            int ruleMask = buffer.get(packageRecord + 4);
+            for (int bit = 0; bit < ACCESS_RULES.size(); bit++) {
+                if ((ruleMask & (1 << bit)) != 0) {
+                    pkg.addAccessRule(ACCESS_RULES.get(bit));
+                }
+            }
+
+            int firstAllowed = buffer.getInt(packageRecord + 5);
+            int allowedCount = buffer.getInt(packageRecord + 9);
+            for (int i = firstAllowed; i < firstAllowed + allowedCount; i++) {
+                pkg.addAllowedModule(string(buffer.getInt(allowedPos + i * 4)));
+            }
+
+            int firstClass = buffer.getInt(packageRecord + 13);
+            int classCount = buffer.getInt(packageRecord + 17);
+            pkg.setLazyClasses(p -> readClasses(p, firstClass, classCount));
+            return pkg;
+        }
+
+        private synchronized void readClasses(JDKPackage pkg, int firstClass, int classCount) {
+            for (int classIndex = firstClass; classIndex < firstClass + classCount; classIndex++) {
+                int classRecord = classPos + classIndex * CLASS_RECORD_SIZE;
+                JDKClass cls = new JDKClass(string(buffer.getInt(classRecord)));
+                int firstMethod = buffer.getInt(classRecord + 4);
+                int methodCount = buffer.getInt(classRecord + 8);
+
+                for (int methodIndex = firstMethod; methodIndex < firstMethod + methodCount; methodIndex++) {
+                    int methodRecord = methodPos + methodIndex * METHOD_RECORD_SIZE;
+                    cls.addMethod(new JDKMethod(string(buffer.getInt(methodRecord)), accessTypes[buffer.get(methodRecord + 4)]));
+                }
+                pkg.addClass(cls);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Several JDK models in one file. Strings, packages and classes are stored once for all versions: a
+ * package record is a module, package name, access rules and allowed modules, a class record a package
+ * name, class name and its methods, and records identical in two versions are shared. Each version is
+ * written as a delta to the previous one, the records it drops and the records it adds, so a release
+ * that changes a few classes costs a few ids. Layout (DataOutput encoding):
+ * <pre>
+ * "BEADMST" version:byte
+ * header:   versionCount:int versionName:UTF[versionCount]
+ * strings:  count:int UTF[count]
+ * packages: count:int (module:int name:int rules:byte allowedCount:int allowed:int[allowedCount])[count]
+ * classes:  count:int (package:int name:int methodCount:int (name:int access:int)[methodCount])[count]
+ * versions: (removedPackages:ids addedPackages:ids removedClasses:ids addedClasses:ids)[versionCount]
+ * ids:      count:int id:int[count]
+ * </pre>
+ * Loaded versions share their {@link JDKClass} objects as well, so a version that differs in a few classes
+ * adds only its own modules, packages and the changed classes to the heap.
+ */
+public class JDKModelStore {
+    private static final String MAGIC = "BEADMST";
+    private static final byte FORMAT_VERSION = 2;
+    private static final List<String> ACCESS_RULES = Arrays.asList("exports", "exports to", "opens", "opens to");
+
+    /** Writes the models in the iteration order of {@code versions}, each version delta encoded against the one before. */
+    public static void write(LinkedHashMap<String, Map<String, JDKModule>> versions, String path) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Integer> packageIds = new LinkedHashMap<>();
+        Map<String, Integer> classIds = new LinkedHashMap<>();
+        ByteArrayOutputStream packageTable = new ByteArrayOutputStream();
+        ByteArrayOutputStream classTable = new ByteArrayOutputStream();
+        DataOutputStream packageOut = new DataOutputStream(packageTable);
+        DataOutputStream classOut = new DataOutputStream(classTable);
+
+        List<Set<Integer>> versionPackages = new ArrayList<>();
+        List<Set<Integer>> versionClasses = new ArrayList<>();
+        for (Map<String, JDKModule> modules : versions.values()) {
+            Set<Integer> packages = new TreeSet<>();
+            Set<Integer> classes = new TreeSet<>();
+            for (JDKModule module : sorted(modules)) {
+                for (JDKPackage pkg : sorted(module.getPackages())) {
+                    List<String> allowedModules = pkg.getAllowedModules();
+                    int rules = encodeAccessRules(pkg.getAccessRules());
+                    String packageKey = module.getName() + '|' + pkg.getName() + '|' + rules + '|' + String.join(",", allowedModules);
+                    Integer packageId = packageIds.get(packageKey);
+                    if (packageId == null) {
+                        packageId = packageIds.size();
+                        packageIds.put(packageKey, packageId);
+                        packageOut.writeInt(intern(strings, module.getName()));
+                        packageOut.writeInt(intern(strings, pkg.getName()));
+                        packageOut.writeByte(rules);
+                        packageOut.writeInt(allowedModules.size());
+                        for (String allowedModule : allowedModules) {
+                            packageOut.writeInt(intern(strings, allowedModule));
+                        }
+                    }
+                    packages.add(packageId);
+
+                    for (JDKClass cls : sorted(pkg.getClasses())) {
+                        List<JDKMethod> methods = sorted(cls.getMethods());
+                        StringBuilder classKey = new StringBuilder(pkg.getName()).append('|').append(cls.getName());
+                        for (JDKMethod method : methods) {
+                            classKey.append('|').append(method.getName()).append('=').append(method.getAccessType());
+                        }
+                        Integer classId = classIds.get(classKey.toString());
+                        if (classId == null) {
+                            classId = classIds.size();
+                            classIds.put(classKey.toString(), classId);
+                            classOut.writeInt(intern(strings, pkg.getName()));
+                            classOut.writeInt(intern(strings, cls.getName()));
+                            classOut.writeInt(methods.size());
+                            for (JDKMethod method : methods) {
+                                classOut.writeInt(intern(strings, method.getName()));
+                                classOut.writeInt(intern(strings, method.getAccessType()));
+                            }
+                        }
+                        classes.add(classId);
+                    }
+                }
+            }
+            versionPackages.add(packages);
+            versionClasses.add(classes);
+        }
+
+        // Written next to the store and moved into place, so that a reader or a concurrent writer never sees a partial store
+        Path target = Paths.get(path).toAbsolutePath();
+        Path staging = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging), 1 << 16))) {
+            out.writeBytes(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(versions.size());
+            for (String version : versions.keySet()) {
+                out.writeUTF(version);
+            }
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                out.writeUTF(s);
+            }
+            out.writeInt(packageIds.size());
+            packageTable.writeTo(out);
+            out.writeInt(classIds.size());
+            classTable.writeTo(out);
+
+            Set<Integer> previousPackages = Collections.emptySet();
+            Set<Integer> previousClasses = Collections.emptySet();
+            for (int index = 0; index < versions.size(); index++) {
+                writeDelta(out, previousPackages, versionPackages.get(index));
+                writeDelta(out, previousClasses, versionClasses.get(index));
+                previousPackages = versionPackages.get(index);
+                previousClasses = versionClasses.get(index);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(staging);
+            throw e;
+        }
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Version name -> modules, in the order the versions were written. */
+    public static LinkedHashMap<String, Map<String, JDKModule>> load(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            List<String> versionNames = readHeader(in, path);
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            int packageCount = in.readInt();
+            int[] packageModules = new int[packageCount];
+            int[] packageNames = new int[packageCount];
+            int[] packageRules = new int[packageCount];
+            int[][] packageAllowed = new int[packageCount][];
+            for (int i = 0; i < packageCount; i++) {
+                packageModules[i] = in.readInt();
+                packageNames[i] = in.readInt();
+                packageRules[i] = in.readByte();
+                packageAllowed[i] = new int[in.readInt()];
+                for (int j = 0; j < packageAllowed[i].length; j++) {
+                    packageAllowed[i][j] = in.readInt();
+                }
+            }
+
+            JDKClass[] classes = new JDKClass[in.readInt()];
+            String[] classPackages = new String[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                classPackages[i] = strings[in.readInt()];
+                classes[i] = new JDKClass(strings[in.readInt()]);
+                int methodCount = in.readInt();
+                for (int j = 0; j < methodCount; j++) {
+                    classes[i].addMethod(new JDKMethod(strings[in.readInt()], strings[in.readInt()]));
+                }
+            }
+
+            LinkedHashMap<String, Map<String, JDKModule>> versions = new LinkedHashMap<>();
+            Set<Integer> packages = new TreeSet<>();
+            Set<Integer> classIds = new TreeSet<>();
+            for (String version : versionNames) {
+                readDelta(in, packages);
+                readDelta(in, classIds);
+
+                Map<String, JDKModule> modules = new HashMap<>();
+                Map<String, JDKPackage> packageIndex = new HashMap<>();
+                for (int id : packages) {
+                    JDKModule module = modules.computeIfAbsent(strings[packageModules[id]], JDKModule::new);
+                    JDKPackage pkg = new JDKPackage(strings[packageNames[id]]);
+                    for (int bit = 0; bit < ACCESS_RULES.size(); bit++) {
+                        if ((packageRules[id] & (1 << bit)) != 0) {
+                            pkg.addAccessRule(ACCESS_RULES.get(bit));
+                        }
+                    }
+                    for (int allowed : packageAllowed[id]) {
+                        pkg.addAllowedModule(strings[allowed]);
+                    }
+                    module.addPackage(pkg);
+                    packageIndex.putIfAbsent(pkg.getName(), pkg);
+                }
+                for (int id : classIds) {
+                    JDKPackage pkg = packageIndex.get(classPackages[id]);
+                    if (pkg != null) {
+                        pkg.addClass(classes[id]);
+                    }
+                }
+                versions.put(version, modules);
+            }
+            return versions;
+        }
+    }
+
+    /** Names of the versions in the store, read from its header only. */
+    public static List<String> readVersionNames(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            return readHeader(in, path);
+        }
+    }
+
+    private static List<String> readHeader(DataInputStream in, String path) throws IOException {
+        byte[] magic = new byte[MAGIC.length()];
+        in.readFully(magic);
+        if (!MAGIC.equals(new String(magic, "US-ASCII")) || in.readByte() != FORMAT_VERSION) {
+            throw new IOException("Not a JDK model store of format version " + FORMAT_VERSION + ": " + path);
+        }
+        List<String> versionNames = new ArrayList<>();
+        int versionCount = in.readInt();
+        for (int i = 0; i < versionCount; i++) {
+            versionNames.add(in.readUTF());
+        }
+        return versionNames;
+    }
+
+    private static void writeDelta(DataOutputStream out, Set<Integer> previous, Set<Integer> current) throws IOException {
+        List<Integer> removed = new ArrayList<>();
+        for (int id : previous) {
+            if (!current.contains(id)) {
+                removed.add(id);
+            }
+        }
+        List<Integer> added = new ArrayList<>();
+        for (int id : current) {
+            if (!previous.contains(id)) {
+                added.add(id);
+            }
+        }
+        writeIds(out, removed);
+        writeIds(out, added);
+    }
+
+    private static void writeIds(DataOutputStream out, List<Integer> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static void readDelta(DataInputStream in, Set<Integer> ids) throws IOException {
+        int removed = in.readInt();
+        for (int i = 0; i < removed; i++) {
+            ids.remove(in.readInt());
+        }
+        int added = in.readInt();
+        for (int i = 0; i < added; i++) {
+            ids.add(in.readInt());
+        }
+    }
+
+    // Values ordered by key, so that equal models are written as equal records
+    private static <V> List<V> sorted(Map<String, V> map) {
+        return new ArrayList<>(new TreeMap<>(map).values());
+    }
+
+    private static int intern(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    private static int encodeAccessRules(Set<String> accessRules) throws IOException {
+        int mask = 0;
+        for (String rule : accessRules) {
+            int bit = ACCESS_RULES.indexOf(rule);
+            if (bit < 0) {
+                throw new IOException("Unknown access rule for model store: " + rule);
+            }
+            mask |= 1 << bit;
+        }
+        return mask;
+    }
+}
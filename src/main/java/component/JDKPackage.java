@@ -1,11 +1,15 @@
 package component;
 
 import java.util.*;
+import java.util.function.Consumer;
+
 public class JDKPackage {
     private String name;
     private Set<String> accessRules = new HashSet<>();
+    private int accessRuleMask;
     private List<String> allowedModules = new ArrayList<>();
     private Map<String, JDKClass> classes = new HashMap<>();
+    private volatile Consumer<JDKPackage> lazyClasses;
 
     public JDKPackage(String name) {
         this.name = name;
@@ -19,8 +23,27 @@ public class JDKPackage {
         classes.put(cls.getName(), cls);
     }
 
+    // Used by JDKModelSnapshot to defer reading the classes of a package until they are first needed
+    public void setLazyClasses(Consumer<JDKPackage> lazyClasses) {
+        this.lazyClasses = lazyClasses;
+    }
+
+    private void materializeClasses() {
+        if (lazyClasses == null) {
+            return;
+        }
+        synchronized (this) {
+            Consumer<JDKPackage> loader = lazyClasses;
+            if (loader != null) {
+                loader.accept(this);
+                lazyClasses = null;
+            }
+        }
+    }
+
     public void addAccessRule(String rule) {
         accessRules.add(rule);
+        accessRuleMask |= AccessRuleKind.fromDirective(rule).bit();
     }
 
     public String getName() {
@@ -31,15 +54,22 @@ public class JDKPackage {
         return accessRules;
     }
 
+    // Bitmask of AccessRuleKind bits for the directives in getAccessRules()
+    public int getAccessRuleMask() {
+        return accessRuleMask;
+    }
+
     public List<String> getAllowedModules() {
         return allowedModules;
     }
 
     public Map<String, JDKClass> getClasses() {
+        materializeClasses();
         return classes;
     }
 
     public JDKClass getClass(String name) {
+        materializeClasses();
         return classes.get(name);
     }
 }
@@ -0,0 +1,91 @@
+package component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Content hash, superclass and referenced classes of every class file in a jar, in jar order.
+ */
+public class JarClassIndex {
+    private final Map<String, String> hashes = new LinkedHashMap<>();
+    private final Map<String, String> superNames = new HashMap<>();
+    private final Map<String, Set<String>> references = new HashMap<>();
+
+    public static JarClassIndex scan(String jarPath) throws IOException {
+        JarClassIndex index = new JarClassIndex();
+        try (ZipFile jar = new ZipFile(jarPath)) {
+            Enumeration<? extends ZipEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/") || entryName.endsWith("module-info.class")) {
+                    continue;
+                }
+
+                byte[] bytes;
+                try (InputStream in = jar.getInputStream(entry)) {
+                    bytes = in.readAllBytes();
+                }
+                ClassFileInfo info = new ClassFileInfo(bytes);
+                index.hashes.put(info.getName(), sha256(bytes));
+                index.superNames.put(info.getName(), info.getSuperName());
+                index.references.put(info.getName(), info.getReferencedClasses());
+            }
+        }
+        return index;
+    }
+
+    public Set<String> getClassNames() {
+        return hashes.keySet();
+    }
+
+    public boolean contains(String className) {
+        return hashes.containsKey(className);
+    }
+
+    public String getHash(String className) {
+        return hashes.get(className);
+    }
+
+    public String getSuperName(String className) {
+        return superNames.get(className);
+    }
+
+    public Set<String> getReferences(String className) {
+        return references.getOrDefault(className, Collections.emptySet());
+    }
+
+    /*
+     * Jar class a member of className is attributed to: the class itself, or for classes that are not
+     * in the jar (e.g. generated for lambdas) the closest enclosing class by '$' nesting.
+     */
+    public String findOwner(String className) {
+        String owner = className;
+        while (!hashes.containsKey(owner)) {
+            int nested = owner.lastIndexOf('$');
+            if (nested < 0) {
+                return null;
+            }
+            owner = owner.substring(0, nested);
+        }
+        return owner;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package component;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes one JSON object per line and finding:
+ * <pre>
+ * {"jar":"x.jar","kind":"reflective","reason":"REFLECT_NOT_PUBLIC","module":"java.base","package":"java.lang",
+ *  "class":"java.lang.ClassLoader","member":"defineClass","sourceMethod":"&lt;a.B: void m()&gt;","sourceClass":"a.B",
+ *  "accessType":"protected","allowedModules":null}
+ * </pre>
+ * {@code kind} is "reflective" or "compile-time" and {@code reason} the name of the {@link AbuseReason}.
+ * Absent values are written as null.
+ */
+public class JsonLinesFindingWriter implements FindingSink {
+    private final Writer writer;
+    private final String jarName;
+    private final StringBuilder line = new StringBuilder(512);
+
+    public JsonLinesFindingWriter(File file, String jarName) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16), jarName);
+    }
+
+    // Writes to a stream owned by the caller, e.g. the connection of a daemon client
+    public JsonLinesFindingWriter(Writer writer, String jarName) {
+        this.writer = writer;
+        this.jarName = jarName;
+    }
+
+    @Override
+    public void write(AbuseFinding finding) {
+        line.setLength(0);
+        line.append('{');
+        appendField("jar", jarName).append(',');
+        appendField("kind", finding.getReason().isReflective() ? "reflective" : "compile-time").append(',');
+        appendField("reason", finding.getReason().name()).append(',');
+        appendField("module", finding.getModule()).append(',');
+        appendField("package", finding.getPackageName()).append(',');
+        appendField("class", finding.getTargetClassName()).append(',');
+        appendField("member", finding.getTargetMemberName()).append(',');
+        appendField("sourceMethod", finding.getSourceMethod()).append(',');
+        appendField("sourceClass", finding.getSourceClass()).append(',');
+        appendField("accessType", finding.getAccessType()).append(',');
+        appendString("allowedModules");
+        line.append(':');
+        List<String> allowedModules = finding.getAllowedModules();
+        if (allowedModules == null) {
+            line.append("null");
+        } else {
+            line.append('[');
+            for (int i = 0; i < allowedModules.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendString(allowedModules.get(i));
+            }
+            line.append(']');
+        }
+        line.append("}\n");
+
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StringBuilder appendField(String name, String value) {
+        appendString(name);
+        line.append(':');
+        if (value == null) {
+            line.append("null");
+        } else {
+            appendString(value);
+        }
+        return line;
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
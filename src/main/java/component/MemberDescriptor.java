@@ -0,0 +1,128 @@
+package component;
+
+/**
+ * Reusable (package, class, member) view over a JDK member descriptor, decoded in a single linear scan.
+ * Reflective targets arrive as "pkg.Class.member" strings that may still carry binary-name decorations
+ * ('/' separators, a leading 'L', ';' terminators); compile-time targets arrive as a declaring class
+ * name plus a Soot sub-signature. The parts are only materialized as strings when they are asked for.
+ */
+public class MemberDescriptor {
+    private final StringBuilder buffer = new StringBuilder();
+    private String descriptor;
+    private String memberSource;
+    private int packageEnd, classStart, classEnd, memberStart;
+    private String packageName, className, memberName;
+
+    /**
+     * Decodes a reflective target. Normalizes it the same way as
+     * {@code replace('/', '.').replaceAll("^L|;$", "").replaceAll(";\\.", ".")} and returns whether the
+     * result has the shape {@code [\w.]+\.[\w]+\.[\w]+\.[\w]+}.
+     */
+    public boolean decodeReflective(String binaryName) {
+        descriptor = normalize(binaryName);
+        memberSource = descriptor;
+        packageName = className = memberName = null;
+
+        int lastDot = -1, secondLastDot = -1, thirdLastDot = -1;
+        for (int i = 0; i < descriptor.length(); i++) {
+            char c = descriptor.charAt(i);
+            if (c == '.') {
+                thirdLastDot = secondLastDot;
+                secondLastDot = lastDot;
+                lastDot = i;
+            } else if (!isWordChar(c)) {
+                return false;
+            }
+        }
+
+        if (thirdLastDot < 1 || secondLastDot - thirdLastDot < 2 || lastDot - secondLastDot < 2 || descriptor.length() - lastDot < 2) {
+            return false;
+        }
+
+        packageEnd = secondLastDot;
+        classStart = secondLastDot + 1;
+        classEnd = lastDot;
+        memberStart = lastDot + 1;
+        return true;
+    }
+
+    /**
+     * Decodes a compile-time target given as its declaring class name and a sub-signature such as
+     * {@code "void foo(int,java.lang.String)"}; the member is the sub-signature without its return type.
+     */
+    public void decodeCompileTime(String declaringClass, String subSignature) {
+        descriptor = declaringClass;
+        memberSource = subSignature;
+        packageName = className = memberName = null;
+
+        int lastDot = declaringClass.lastIndexOf('.');
+        packageEnd = lastDot;
+        classStart = lastDot + 1;
+        classEnd = declaringClass.length();
+        memberStart = subSignature.indexOf(' ') + 1;
+    }
+
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    public String getPackageName() {
+        if (packageName == null) {
+            packageName = descriptor.substring(0, packageEnd);
+        }
+        return packageName;
+    }
+
+    public String getClassName() {
+        if (className == null) {
+            className = descriptor.substring(classStart, classEnd);
+        }
+        return className;
+    }
+
+    public String getMemberName() {
+        if (memberName == null) {
+            memberName = memberSource.substring(memberStart);
+        }
+        return memberName;
+    }
+
+    private String normalize(String binaryName) {
+        int start = 0;
+        int end = binaryName.length();
+        if (end > 0 && binaryName.charAt(0) == 'L') {
+            start = 1;
+        }
+        if (end > start && binaryName.charAt(end - 1) == ';') {
+            end--;
+        }
+
+        boolean unchanged = start == 0 && end == binaryName.length();
+        for (int i = start; i < end && unchanged; i++) {
+            char c = binaryName.charAt(i);
+            unchanged = c != '/' && (c != ';' || !isSeparatorAt(binaryName, i + 1, end));
+        }
+        if (unchanged) {
+            return binaryName;
+        }
+
+        buffer.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = binaryName.charAt(i);
+            if (c == '/') {
+                buffer.append('.');
+            } else if (c != ';' || !isSeparatorAt(binaryName, i + 1, end)) {
+                buffer.append(c);
+            }
+        }
+        return buffer.toString();
+    }
+
+    private static boolean isSeparatorAt(String s, int index, int end) {
+        return index < end && (s.charAt(index) == '.' || s.charAt(index) == '/');
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,102 @@
+package component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Wall time, CPU time, allocation and peak RSS of the phases of one analysis run, written for the macro
+ * benchmark. Phases may nest and may be entered several times, their numbers add up. CPU time is the
+ * CPU time of the whole process; allocation is counted for the threads alive at the start and end of a
+ * phase, so worker threads that finish inside a phase are missed. Phases interleaved with others are
+ * measured on the current thread with {@link #threadCounters()} and {@link #addThreadSpan}.
+ */
+public class PhaseStats {
+    private static final com.sun.management.OperatingSystemMXBean OS =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, long[]> started = new TreeMap<>();
+    // Phase -> wall nanos, CPU nanos, allocated bytes, peak RSS in kB at its last end (0 until it ends)
+    private final Map<String, long[]> totals = new TreeMap<>();
+
+    public void begin(String phase) {
+        started.put(phase, new long[]{System.nanoTime(), OS.getProcessCpuTime(), allocatedBytes()});
+    }
+
+    public void end(String phase) {
+        long[] start = started.remove(phase);
+        if (start != null) {
+            long[] total = add(phase, System.nanoTime() - start[0], OS.getProcessCpuTime() - start[1], allocatedBytes() - start[2]);
+            total[3] = peakRssKb();
+        }
+    }
+
+    // CPU nanos and allocated bytes of the current thread so far
+    public static long[] threadCounters() {
+        long threadId = Thread.currentThread().getId();
+        return new long[]{THREADS.getCurrentThreadCpuTime(), THREADS.getThreadAllocatedBytes(threadId)};
+    }
+
+    // Called once per checked method, so it only adds to the counters; the peak RSS of the phase is taken in write()
+    public void addThreadSpan(String phase, long startNanos, long[] startCounters) {
+        long[] counters = threadCounters();
+        add(phase, System.nanoTime() - startNanos, counters[0] - startCounters[0], counters[1] - startCounters[1]);
+    }
+
+    private long[] add(String phase, long wallNanos, long cpuNanos, long allocated) {
+        AnalysisMetrics.recordTime("phase." + phase, wallNanos);
+        long[] total = totals.computeIfAbsent(phase, k -> new long[4]);
+        total[0] += wallNanos;
+        total[1] += cpuNanos;
+        total[2] += allocated;
+        return total;
+    }
+
+    private static long allocatedBytes() {
+        long sum = 0;
+        for (long allocated : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            if (allocated > 0) {
+                sum += allocated;
+            }
+        }
+        return sum;
+    }
+
+    // VmHWM of this process, -1 where /proc is not available
+    private static long peakRssKb() {
+        try {
+            List<String> lines = Files.readAllLines(Paths.get("/proc/self/status"));
+            for (String line : lines) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not on Linux
+        }
+        return -1;
+    }
+
+    /** Writes "phase.metric=value" lines with the metrics wallMs, cpuMs, allocMb and peakRssMb. */
+    public void write(Path file) throws IOException {
+        long peakRssKb = peakRssKb();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+                long[] total = entry.getValue();
+                long phasePeakRssKb = total[3] != 0 ? total[3] : peakRssKb;
+                writer.println(entry.getKey() + ".wallMs=" + total[0] / 1_000_000);
+                writer.println(entry.getKey() + ".cpuMs=" + total[1] / 1_000_000);
+                writer.println(entry.getKey() + ".allocMb=" + (total[2] >> 20));
+                writer.println(entry.getKey() + ".peakRssMb=" + (phasePeakRssKb < 0 ? -1 : phasePeakRssKb >> 10));
+            }
+        }
+    }
+}
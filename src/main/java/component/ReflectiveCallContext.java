@@ -0,0 +1,55 @@
+package component;
+
+import soot.Hierarchy;
+import soot.Scene;
+import soot.SootClass;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scene lookups shared by all reflective call sites of one analysis run. The hierarchy and the
+ * java.lang.ClassLoader library class are resolved on first use only, and "is this a class loader"
+ * answers are remembered per declaring class. Once {@link #resolve()} has run the context may be shared
+ * by concurrent workers, until the Scene changes again and it is resolved anew.
+ */
+public class ReflectiveCallContext {
+    private static final String CLASS_LOADER = "java.lang.ClassLoader";
+
+    private Hierarchy hierarchy;
+    private SootClass classLoaderClass;
+    private final Map<SootClass, Boolean> classLoaderSubclasses = new ConcurrentHashMap<>();
+
+    public void resolve() {
+        // Resolving more classes replaces the Scene's hierarchy, the old one refuses further queries
+        hierarchy = Scene.v().getActiveHierarchy();
+        getClassLoaderClass();
+    }
+
+    public Hierarchy getHierarchy() {
+        if (hierarchy == null) {
+            hierarchy = Scene.v().getActiveHierarchy();
+        }
+        return hierarchy;
+    }
+
+    // The library ClassLoader class, or null while it is not (yet) part of the scene's library classes
+    public SootClass getClassLoaderClass() {
+        if (classLoaderClass == null) {
+            SootClass candidate = Scene.v().getSootClassUnsafe(CLASS_LOADER, false);
+            if (candidate != null && candidate.isLibraryClass()) {
+                classLoaderClass = candidate;
+            }
+        }
+        return classLoaderClass;
+    }
+
+    public boolean isClassLoader(SootClass declaringClass) {
+        Boolean isLoader = classLoaderSubclasses.get(declaringClass);
+        if (isLoader == null) {
+            isLoader = getHierarchy().isClassSubclassOfIncluding(declaringClass, getClassLoaderClass());
+            classLoaderSubclasses.put(declaringClass, isLoader);
+        }
+        return isLoader;
+    }
+}
@@ -0,0 +1,72 @@
+package component;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the reflective analysis of a single method produces: its report lines, counters, and the
+ * full/partial method names in the order they were found. Methods can be analyzed independently into
+ * their own result and merged afterwards in method order.
+ */
+public class ReflectiveMethodResult {
+    private final StringWriter text = new StringWriter();
+    private final PrintWriter writer = new PrintWriter(text);
+    private final Map<String, Integer> fullMethodCounts = new HashMap<>();
+    private final List<String> partMethodNames = new ArrayList<>();
+    public int reflectInvokeCount;
+    public int nonStringConstantMethodNameCount;
+    public int methodNameWithoutClassNameCount;
+    public int fullMethodNameCount;
+
+    // Rebuilds a result recorded by an earlier run, full method names in their recorded iteration order
+    public static ReflectiveMethodResult restore(String text, int[] counts, Map<String, Integer> fullMethodCounts, List<String> partMethodNames) {
+        ReflectiveMethodResult result = new ReflectiveMethodResult();
+        result.writer.print(text);
+        result.reflectInvokeCount = counts[0];
+        result.nonStringConstantMethodNameCount = counts[1];
+        result.methodNameWithoutClassNameCount = counts[2];
+        result.fullMethodNameCount = counts[3];
+        result.fullMethodCounts.putAll(fullMethodCounts);
+        result.partMethodNames.addAll(partMethodNames);
+        return result;
+    }
+
+    public int[] getCounts() {
+        return new int[]{reflectInvokeCount, nonStringConstantMethodNameCount, methodNameWithoutClassNameCount, fullMethodNameCount};
+    }
+
+    public boolean isEmpty() {
+        return getText().isEmpty() && reflectInvokeCount == 0 && nonStringConstantMethodNameCount == 0
+                && methodNameWithoutClassNameCount == 0 && fullMethodNameCount == 0
+                && fullMethodCounts.isEmpty() && partMethodNames.isEmpty();
+    }
+
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    public String getText() {
+        writer.flush();
+        return text.toString();
+    }
+
+    public void addFullMethod(String fullMethodName) {
+        fullMethodCounts.merge(fullMethodName, 1, Integer::sum);
+    }
+
+    public void addPartMethod(String methodNameOnly) {
+        partMethodNames.add(methodNameOnly);
+    }
+
+    public Map<String, Integer> getFullMethodCounts() {
+        return fullMethodCounts;
+    }
+
+    public List<String> getPartMethodNames() {
+        return partMethodNames;
+    }
+}
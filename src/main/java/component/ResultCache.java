@@ -0,0 +1,192 @@
+package component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of the four result files of one AbuseAnalyzer run. An entry is keyed by the SHA-256 of
+ * the jar's content together with the JDK model files it was checked against and the analysis options
+ * that change the result files, so a renamed or moved jar
+ * still hits and any change to the jar or the model misses. Callers caching outputs that name the jar,
+ * such as the structured findings, add the jar name to the options. Entries are stored under their key and the
+ * least recently used ones are dropped once the cache grows past its size bound.
+ */
+public class ResultCache {
+    public static final String CACHE_DIR_NAME = "ResultCache";
+    private static final String FORMAT_VERSION = "1";
+    private static final String FINGERPRINT_FILE_NAME = "model_fingerprints.properties";
+    private static final String[] RESULT_SUFFIXES = {
+            "Reflect_Invoke.txt", "Compile_Time_Invoke.txt", "Reflect_Abuse.txt", "Compile_Time_Abuse.txt"};
+
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    public ResultCache(Path cacheDir, long maxBytes) {
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+    }
+
+    public String computeKey(String jarPath, String options, String... modelFiles) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(FORMAT_VERSION.getBytes());
+        digest.update(options.getBytes());
+        digest.update(hashOf(Paths.get(jarPath)).getBytes());
+        for (String modelFile : modelFiles) {
+            digest.update(modelFingerprint(Paths.get(modelFile)).getBytes());
+        }
+        return toHex(digest.digest());
+    }
+
+    /*
+     * The model files are large and rarely change, so their hashes are remembered by path, size and
+     * modification time; the jar itself is hashed on every run.
+     */
+    private String modelFingerprint(Path file) throws IOException {
+        Path memoFile = cacheDir.resolve(FINGERPRINT_FILE_NAME);
+        Properties fingerprints = new Properties();
+        if (Files.isRegularFile(memoFile)) {
+            try (InputStream in = Files.newInputStream(memoFile)) {
+                fingerprints.load(in);
+            }
+        }
+
+        String path = file.toAbsolutePath().toString();
+        String stamp = Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis() + ":";
+        String memo = fingerprints.getProperty(path);
+        if (memo != null && memo.startsWith(stamp)) {
+            return memo.substring(stamp.length());
+        }
+
+        String hash = hashOf(file);
+        fingerprints.setProperty(path, stamp + hash);
+        Files.createDirectories(cacheDir);
+        Path staging = Files.createTempFile(cacheDir, FINGERPRINT_FILE_NAME, ".tmp");
+        try (OutputStream out = Files.newOutputStream(staging)) {
+            fingerprints.store(out, null);
+        }
+        Files.move(staging, memoFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return hash;
+    }
+
+    /**
+     * Copies the cached result files of {@code key}, and the optional {@code extraSuffixes} outputs, into
+     * {@code resultDir}, named after {@code jarName}. Returns false, leaving {@code resultDir} untouched,
+     * when there is no complete entry for the key.
+     */
+    public boolean restore(String key, Path resultDir, String jarName, String... extraSuffixes) throws IOException {
+        Path entry = cacheDir.resolve(key);
+        List<String> suffixes = resultSuffixes(extraSuffixes);
+        for (String suffix : suffixes) {
+            if (!Files.isRegularFile(entry.resolve(suffix))) {
+                return false;
+            }
+        }
+
+        Files.createDirectories(resultDir);
+        for (String suffix : suffixes) {
+            Files.copy(entry.resolve(suffix), resultDir.resolve(jarName + "_" + suffix), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        return true;
+    }
+
+    public void store(String key, Path resultDir, String jarName, String... extraSuffixes) throws IOException {
+        Path entry = cacheDir.resolve(key);
+        // Written next to the entry and moved into place, so a concurrent reader never sees half an entry
+        Path staging = Files.createTempDirectory(Files.createDirectories(cacheDir), key + ".tmp");
+        try {
+            for (String suffix : resultSuffixes(extraSuffixes)) {
+                Files.copy(resultDir.resolve(jarName + "_" + suffix), staging.resolve(suffix));
+            }
+            deleteRecursively(entry);
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteRecursively(staging);
+        }
+        evict();
+    }
+
+    private static List<String> resultSuffixes(String[] extraSuffixes) {
+        List<String> suffixes = new ArrayList<>(Arrays.asList(RESULT_SUFFIXES));
+        suffixes.addAll(Arrays.asList(extraSuffixes));
+        return suffixes;
+    }
+
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(Files::isDirectory).filter(path -> !path.getFileName().toString().contains(".tmp")).forEach(entries::add);
+        }
+
+        long totalBytes = 0;
+        for (Path entry : entries) {
+            totalBytes += sizeOf(entry);
+        }
+        entries.sort(Comparator.comparingLong(ResultCache::lastUsed));
+        for (Path entry : entries) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            totalBytes -= sizeOf(entry);
+            deleteRecursively(entry);
+        }
+    }
+
+    private static String hashOf(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static long sizeOf(Path entry) throws IOException {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static long lastUsed(Path entry) {
+        return entry.toFile().lastModified();
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
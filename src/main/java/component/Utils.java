@@ -1,6 +1,10 @@
 package component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 
@@ -11,14 +15,19 @@ import soot.SootMethod;
 import soot.util.Chain;
 
 public class Utils {
+    // Names Soot quotes in signatures because they are Jimple keywords
+    private static final Set<String> JIMPLE_KEYWORDS = new HashSet<>(Arrays.asList(
+            "newarray", "newmultiarray", "nop", "ret", "specialinvoke", "staticinvoke", "tableswitch", "virtualinvoke",
+            "null_type", "unknown", "cmp", "cmpg", "cmpl", "entermonitor", "exitmonitor", "interfaceinvoke", "lengthof",
+            "lookupswitch", "neg", "if", "abstract", "annotation", "boolean", "break", "byte", "case", "catch", "char",
+            "class", "enum", "final", "native", "public", "protected", "private", "static", "synchronized", "transient",
+            "volatile", "interface", "void", "short", "int", "long", "float", "double", "extends", "implements",
+            "breakpoint", "default", "goto", "instanceof", "new", "return", "throw", "throws", "null", "from", "to",
+            "with", "cls", "dynamicinvoke", "strictfp"));
+
+    // A method is listed in exactly one class, its declaring class, and only while it is declared there
     public static boolean isApplicationMethod(SootMethod method) {
-        Chain<SootClass> applicationClasses = Scene.v().getApplicationClasses();
-        for (SootClass appClass : applicationClasses) {
-            if (appClass.getMethods().contains(method)) {
-                return true;
-            }
-        }
-        return false;
+        return method.isDeclared() && method.getDeclaringClass().isApplicationClass();
     }
 
     public static Set<SootMethod> getApplicationMethods() {
@@ -30,4 +39,100 @@ public class Utils {
         return appMethods;
     }
 
+    // Declaring class of a Soot method signature "<a.b.C: void m(int)>", without Jimple keyword quoting
+    public static String getSignatureClass(String methodSignature) {
+        return methodSignature.substring(1, methodSignature.indexOf(": ")).replace("'", "");
+    }
+
+    // Sub-signature of a Soot method signature, "void m(int)" for "<a.b.C: void m(int)>"
+    public static String getSubSignature(String methodSignature) {
+        return methodSignature.substring(methodSignature.indexOf(": ") + 2, methodSignature.length() - 1);
+    }
+
+    // Soot method signature of a class file method, "<a.b.C: void m(int)>" for a.b.C, m and "(I)V"
+    public static String getSignature(String className, String methodName, String descriptor) {
+        StringBuilder signature = new StringBuilder("<").append(quoteName(className)).append(": ");
+        appendType(descriptor, descriptor.indexOf(')') + 1, signature);
+        signature.append(' ').append(quoteName(methodName)).append('(');
+        int index = 1;
+        while (descriptor.charAt(index) != ')') {
+            if (index > 1) {
+                signature.append(',');
+            }
+            index = appendType(descriptor, index, signature);
+        }
+        return signature.append(")>").toString();
+    }
+
+    // Java types of the parameters of a method descriptor, [int, java.lang.String[]] for "(I[Ljava/lang/String;)V"
+    public static List<String> getParameterTypes(String descriptor) {
+        List<String> types = new ArrayList<>();
+        StringBuilder type = new StringBuilder();
+        int index = 1;
+        while (descriptor.charAt(index) != ')') {
+            type.setLength(0);
+            index = appendType(descriptor, index, type);
+            types.add(type.toString());
+        }
+        return types;
+    }
+
+    // Quotes the parts of a dotted name the way Soot prints them in signatures
+    public static String quoteName(String name) {
+        StringBuilder quoted = new StringBuilder(name.length());
+        for (String part : name.split("\\.")) {
+            if (quoted.length() > 0) {
+                quoted.append('.');
+            }
+            if (part.startsWith("-") || JIMPLE_KEYWORDS.contains(part)) {
+                quoted.append('\'').append(part).append('\'');
+            } else {
+                quoted.append(part);
+            }
+        }
+        return quoted.toString();
+    }
+
+    // Appends the Java type of the field descriptor starting at index and returns the index after it
+    private static int appendType(String descriptor, int index, StringBuilder out) {
+        int dimensions = 0;
+        while (descriptor.charAt(index) == '[') {
+            dimensions++;
+            index++;
+        }
+        char kind = descriptor.charAt(index);
+        if (kind == 'L') {
+            int end = descriptor.indexOf(';', index);
+            out.append(quoteName(descriptor.substring(index + 1, end).replace('/', '.')));
+            index = end + 1;
+        } else {
+            switch (kind) {
+                case 'B': out.append("byte"); break;
+                case 'C': out.append("char"); break;
+                case 'D': out.append("double"); break;
+                case 'F': out.append("float"); break;
+                case 'I': out.append("int"); break;
+                case 'J': out.append("long"); break;
+                case 'S': out.append("short"); break;
+                case 'Z': out.append("boolean"); break;
+                default: out.append("void"); break;
+            }
+            index++;
+        }
+        for (int i = 0; i < dimensions; i++) {
+            out.append("[]");
+        }
+        return index;
+    }
+
+    public static String getJarName(String jarPath) {
+        int separatorIndex = Math.max(jarPath.lastIndexOf('\\'), jarPath.lastIndexOf('/'));
+        return jarPath.substring(separatorIndex + 1).replace(".jar", "");
+    }
+
+    // Jar name without its version suffix, "guava" for ".../guava-31.1-jre.jar"
+    public static String getArtifactName(String jarPath) {
+        return getJarName(jarPath).replaceFirst("-\\d.*$", "");
+    }
+
 }
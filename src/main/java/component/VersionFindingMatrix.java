@@ -0,0 +1,77 @@
+package component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Findings of one jar checked against several JDK versions. Every edge found abusive under at least one
+ * version is a row, identified by its kind, source method and target, with the abuse reason under each
+ * version, or "-" where the edge is no abuse. Written as tab-separated values:
+ * <pre>
+ * kind	sourceMethod	target	11	17	21
+ * reflective	&lt;a.B: void m()&gt;	java.lang.ClassLoader.defineClass	REFLECT_NOT_PUBLIC	REFLECT_NOT_PUBLIC	-
+ * </pre>
+ */
+public class VersionFindingMatrix {
+    private final List<String> versions;
+    private final Map<String, AbuseReason[]> rows = new LinkedHashMap<>();
+    private final int[] findingCounts;
+
+    public VersionFindingMatrix(List<String> versions) {
+        this.versions = versions;
+        this.findingCounts = new int[versions.size()];
+    }
+
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public void add(int versionIndex, AbuseFinding finding) {
+        String key = (finding.getReason().isReflective() ? "reflective" : "compile-time") + '\t' + finding.getSourceMethod()
+                + '\t' + finding.getTargetClassName() + '.' + finding.getTargetMemberName();
+        rows.computeIfAbsent(key, k -> new AbuseReason[versions.size()])[versionIndex] = finding.getReason();
+        findingCounts[versionIndex]++;
+    }
+
+    public int getFindingCount(int versionIndex) {
+        return findingCounts[versionIndex];
+    }
+
+    // Rows whose reason is not the same under all versions
+    public int getChangingRowCount() {
+        int count = 0;
+        for (AbuseReason[] reasons : rows.values()) {
+            for (AbuseReason reason : reasons) {
+                if (reason != reasons[0]) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    public void writeTo(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.print("kind\tsourceMethod\ttarget");
+            for (String version : versions) {
+                writer.print('\t');
+                writer.print(version);
+            }
+            writer.println();
+
+            for (Map.Entry<String, AbuseReason[]> row : rows.entrySet()) {
+                writer.print(row.getKey());
+                for (AbuseReason reason : row.getValue()) {
+                    writer.print('\t');
+                    writer.print(reason != null ? reason.name() : "-");
+                }
+                writer.println();
+            }
+        }
+    }
+}